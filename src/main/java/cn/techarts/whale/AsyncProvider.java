@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Inject an asynchronously constructed managed object(field, method or constructor).<br>
+ * The managed object is built on the container executor after the context starts if it's 
+ * injected via AsyncProvider only, so the callers can overlap their own work with it.
+ * 
+ * @author rocwon@gmail.com
+ */
+public interface AsyncProvider<T> {
+	/**
+	 * @return The future completes when the managed object is built.
+	 */
+	public CompletableFuture<T> get();
+}
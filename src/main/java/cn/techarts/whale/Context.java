@@ -16,8 +16,17 @@
 
 package cn.techarts.whale;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.HashMap;
 
@@ -27,7 +36,15 @@ import cn.techarts.whale.core.Binder;
 import cn.techarts.whale.core.Craft;
 import cn.techarts.whale.core.Factory;
 import cn.techarts.whale.core.Loader;
+import cn.techarts.whale.core.Shutdown;
+import cn.techarts.whale.aop.Cache;
+import cn.techarts.whale.aop.Dispatcher;
+import cn.techarts.whale.aop.Limiter;
+import cn.techarts.whale.aop.Timing;
+import cn.techarts.whale.aop.Trace;
 import cn.techarts.whale.util.Hotpot;
+import cn.techarts.whale.util.Sources;
+import cn.techarts.whale.util.Watcher;
 
 /**
  * <p>javax & jakarta</p>
@@ -35,16 +52,30 @@ import cn.techarts.whale.util.Hotpot;
  * @author rocwon@gmail.com
  */
 public class Context implements AutoCloseable{
-	private Map<String, Craft> crafts;
-	private Map<String, String> configs;
+	private volatile Map<String, Craft> crafts;
+	private Sources sources;
+	private Watcher watcher;
+	private volatile Map<String, String> configs;
+	
+	/** Blue/green: users << 2 | CLOSED | RETIRED */
+	private final AtomicInteger state = new AtomicInteger();
+	private static final int RETIRED = 1, CLOSED = 2, USER = 4;
 	private Factory craftFactory = null;
+	private Context parent; //Module
+	private Map<String, Context> modules = new ConcurrentHashMap<>();
 	private static final Logger LOGGER = Hotpot.getLogger();
 	public static final String NAME = "context.whale.techarts";
 	
 	private Context(Map<String, Craft> container, Map<String, String> configs){
+		this(container, configs, null);
+	}
+	
+	private Context(Map<String, Craft> container, Map<String, String> configs, Context parent){
 		this.crafts = container;
+		this.parent = parent;
 		this.configs = Objects.isNull(configs) ? Map.of() : configs;
-		this.craftFactory = new Factory(this.crafts, this.configs);
+		var factory = parent != null ? parent.craftFactory : null;
+		this.craftFactory = new Factory(this.crafts, this.configs, factory);
 	}
 	
 	/**
@@ -56,12 +87,22 @@ public class Context implements AutoCloseable{
 	}
 	
 	/**
-	 * Construct a context with configuration path.
+	 * Construct a context with configuration path. The values are NOT interpolated, 
+	 * see {@link #make(Sources)} for the ${key} references.
 	 */
 	public static Context make(String configPath) {
+		return make(new Sources().properties(configPath).verbatim());
+	}
+	
+	/**
+	 * Construct a context with a chain of configuration sources. 
+	 * The sources are merged and interpolated ONCE here.
+	 */
+	public static Context make(Sources sources) {
 		var container = new HashMap<String, Craft>(256);
-		var configs = Hotpot.resolveProperties(configPath);
-		return new Context(container, configs);
+		var result = new Context(container, sources.resolve());
+		result.sources = sources;
+		return result;
 	}
 	
 	/**
@@ -71,6 +112,39 @@ public class Context implements AutoCloseable{
 		return new Context(new HashMap<>(256), configs);
 	}
 	
+	/**
+	 * Create(or get) a child module context with the configurations of this one. The managed 
+	 * objects of the module are resolved locally first and then in this context(the parent), 
+	 * the parent hits are cached in the module. The parent can't see the objects of its modules.
+	 */
+	public Context module(String name) {
+		if(Objects.isNull(name)) throw Panic.nullName();
+		return modules.computeIfAbsent(name, key -> new Context(new HashMap<>(256), configs, this));
+	}
+	
+	/**
+	 * Create(or get) a module and load the managed objects from the JAR files into it. Each JAR 
+	 * has its own class loader, the classes can be unloaded after the module is closed.
+	 */
+	public Context module(String name, String... jars) {
+		var result = module(name);
+		var loader = result.getLoader();
+		if(loader != null) loader.load(jars);
+		return result;
+	}
+	
+	/**
+	 * @return Returns null if the module does not exist.
+	 */
+	public Context getModule(String name) {
+		if(Objects.isNull(name)) return null;
+		return modules.get(name);
+	}
+	
+	public Context getParent() {
+		return this.parent;
+	}
+	
 	public Binder getBinder() {
 		if(craftFactory.launched()) {
 			return null;
@@ -133,7 +207,7 @@ public class Context implements AutoCloseable{
 		if(Objects.isNull(name)) {
 			throw Panic.nullName();
 		}
-		var craft = crafts.get(name);
+		var craft = lookup(name);
 		if(Objects.isNull(craft)) {
 			throw Panic.classNotFound(name);
 		}
@@ -145,7 +219,7 @@ public class Context implements AutoCloseable{
 	 */
 	public Object silent(String name) {
 		if(Objects.isNull(name)) return null;
-		var craft = crafts.get(name);
+		var craft = lookup(name);
 		if(Objects.isNull(craft)) return null;
 		return craft.getInstance();
 	}
@@ -155,7 +229,7 @@ public class Context implements AutoCloseable{
 	 */
 	public<T> T silent(String name, Class<T> clazz) {
 		if(Objects.isNull(name)) return null;
-		var craft = crafts.get(name);
+		var craft = lookup(name);
 		if(Objects.isNull(craft)) return null;
 		var result = craft.getInstance();
 		if(Objects.isNull(result)) return null;
@@ -168,13 +242,28 @@ public class Context implements AutoCloseable{
 	public<T> T silent(Class<T> clazz) {
 		if(Objects.isNull(clazz)) return null;
 		var name = clazz.getName();
-		var craft = crafts.get(name);
+		var craft = lookup(name);
 		if(Objects.isNull(craft)) return null;
 		var result = craft.getInstance();
 		if(Objects.isNull(result)) return null;
 		return clazz.cast(result);
 	}
 	
+	/**
+	 * @return Returns null if the craft does not exist or the context has been closed.
+	 */
+	private Craft lookup(String name) {
+		var factory = this.craftFactory;
+		if(Objects.isNull(factory)) return null; //Closed
+		if(crafts != factory.getCrafts()) {
+			this.refresh(); //Built in background or swapped by a reload
+		}
+		var current = this.crafts;
+		if(Objects.isNull(current)) return null; //Closed meanwhile
+		var result = current.get(name);
+		return result != null ? result : factory.lookup(name);
+	}
+	
 	/**
 	 * Get the managed object without qualifier name.
 	 */
@@ -202,6 +291,153 @@ public class Context implements AutoCloseable{
 		return this.configs.get(key);
 	}
 	
+	/**
+	 * Watch the configuration files(make with a path or sources) and the parsed XML files, 
+	 * reload them when they change. It's opt-in and the reload runs on a background thread.
+	 */
+	public synchronized Context watch() {
+		if(Objects.nonNull(watcher)) return this;
+		this.watcher = new Watcher("whale-watcher", 200);
+		var files = sources != null ? sources.getFiles() : List.<String>of();
+		for(var file : files) {
+			this.watcher.watch(file, path->{
+				try {
+					this.reload();
+				}catch(Panic e) { //Keep the old configurations
+					LOGGER.log(Level.WARNING, "Failed to reload the configuration.", e);
+				}
+			});
+		}
+		for(var file : craftFactory.getResources()) {
+			this.watcher.watch(file, path->{
+				try {
+					this.reloadBeans(file);
+				}catch(Panic e) { //Keep the old crafts
+					LOGGER.log(Level.WARNING, "Failed to reload the beans of " + file, e);
+				}
+			});
+		}
+		return this;
+	}
+	
+	/**
+	 * Parse the XML file again and replace the changed beans and their dependents atomically.
+	 * The modules are rewired to the replaced beans.
+	 * @return The names of replaced crafts
+	 */
+	public Set<String> reloadBeans(String xmlResource) {
+		var factory = this.craftFactory;
+		if(Objects.isNull(factory)) return Set.of(); //Closed
+		var result = factory.reload(xmlResource);
+		this.refresh();
+		return result;
+	}
+	
+	/**
+	 * Append managed objects into the running context. Only the new objects are wired, 
+	 * the concurrent appends are published together. An object whose dependences are 
+	 * absent waits and it's wired once they are appended, an object fails to build is thrown.
+	 * @return The absent dependences of the appended objects still waiting(name->dependences).
+	 */
+	public Map<String, Set<String>> append(Class<?>... classes) {
+		var factory = this.craftFactory;
+		if(Objects.isNull(factory)) {
+			throw Panic.closed("context");
+		}
+		var result = factory.appendAndReport(classes);
+		this.refresh();
+		return result;
+	}
+	
+	private synchronized void refresh() {
+		if(Objects.isNull(craftFactory)) return; //Closed
+		this.crafts = craftFactory.getCrafts();
+	}
+	
+	/**
+	 * Resolve the configuration sources again and re-inject the changed keys into singletons.
+	 * @return The changed keys
+	 */
+	public Set<String> reload() {
+		if(Objects.isNull(sources)) return Set.of();
+		return reload(sources.resolve());
+	}
+	
+	/**
+	 * Replace the configuration and re-inject the changed keys into the fields and 
+	 * methods injected via {@link Valued#key()}. The beans with a {@link Refresh} method are notified. 
+	 * @return The changed keys(empty if the context has been closed, e.g. a late watcher event)
+	 */
+	public Set<String> reload(Map<String, String> configs) {
+		var factory = this.craftFactory;
+		if(Objects.isNull(factory)) return Set.of();
+		var result = factory.reload(configs);
+		synchronized(this) {
+			if(factory == craftFactory) {
+				this.configs = factory.getConfigs();
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Get the latency timing of a method annotated with Timed.
+	 * @return Returns null if the method has never been called.
+	 */
+	public Timing getTiming(String name) {
+		if(Objects.isNull(craftFactory)) return null;
+		return craftFactory.getWeaver().getTiming(name);
+	}
+	
+	/**
+	 * Export all timings of the methods annotated with Timed.
+	 */
+	public Map<String, Timing> getTimings(){
+		if(Objects.isNull(craftFactory)) return Map.of();
+		return craftFactory.getWeaver().getTimings();
+	}
+	
+	/**
+	 * Get the cache region of the methods annotated with Cached.
+	 * @return Returns null if the region does not exist.
+	 */
+	public Cache getCache(String region) {
+		if(Objects.isNull(craftFactory)) return null;
+		return craftFactory.getWeaver().getCache(region);
+	}
+	
+	/**
+	 * Export all cache regions and their statistics.
+	 */
+	public Map<String, Cache> getCaches(){
+		if(Objects.isNull(craftFactory)) return Map.of();
+		return craftFactory.getWeaver().getCaches();
+	}
+	
+	/**
+	 * The executor of the methods annotated with Async. It exposes the queued and active tasks.
+	 */
+	public Dispatcher getDispatcher() {
+		if(Objects.isNull(craftFactory)) return null;
+		return craftFactory.getWeaver().getDispatcher();
+	}
+	
+	/**
+	 * Export the limiters of the methods annotated with Bulkhead, e.g. the in-flight calls.
+	 */
+	public Map<String, Limiter> getLimiters(){
+		if(Objects.isNull(craftFactory)) return Map.of();
+		return craftFactory.getWeaver().getLimiters();
+	}
+	
+	/**
+	 * Export the most recent N calls of the methods annotated with Traced, the latest comes first.
+	 */
+	public List<Trace> getTraces(int n){
+		if(Objects.isNull(craftFactory)) return List.of();
+		return craftFactory.getWeaver().getTracer().recent(n);
+	}
+	
 	/**
 	 * Cache the IOC context into  SERVLET context.
 	 */
@@ -220,26 +456,215 @@ public class Context implements AutoCloseable{
 		return this;
 	}
 	
+	/**
+	 * Start the context(its parent first if it's a module) and then all its modules in parallel.
+	 */
 	public void start() {
+		this.launch();
+		if(modules.isEmpty()) return;
+		modules.values().parallelStream().forEach(Context::start);
+	}
+	
+	/**
+	 * Start the context and its modules without waiting for the async initializers.
+	 * @return The future completes when all initializers finish, see {@link #ready()}
+	 */
+	public CompletableFuture<Context> startAsync() {
+		this.start();
+		return ready().thenApply(v -> this);
+	}
+	
+	/**
+	 * The readiness gate: the future completes when all initializers(including the async ones) of 
+	 * the context and its modules finish, and exceptionally if any of them fails or times out.
+	 */
+	public CompletableFuture<Void> ready() {
+		var factory = this.craftFactory;
+		var current = this.crafts;
+		if(Objects.isNull(factory) || Objects.isNull(current)) {
+			throw Panic.closed("context");
+		}
+		var result = new ArrayList<CompletableFuture<Void>>();
+		current.forEach((k, v) -> {
+			if(!factory.isImported(k)) result.add(v.whenReady());
+		});
+		modules.values().forEach(m -> result.add(m.ready()));
+		return CompletableFuture.allOf(result.toArray(new CompletableFuture<?>[0]));
+	}
+	
+	/**
+	 * The readiness of the managed object, see {@link Ready#async()}
+	 */
+	public CompletableFuture<Void> ready(String name) {
+		var craft = lookup(name);
+		if(Objects.isNull(craft)) {
+			throw Panic.classNotFound(name);
+		}
+		return craft.whenReady();
+	}
+	
+	private void launch() {
+		if(parent != null) parent.launch();
 		if(!craftFactory.launched()) {
 			this.craftFactory.launch();
 		}
 	}
 	
+	/**
+	 * Use the context until {@link #release()} is called, so it's not closed when it's replaced.
+	 * @return Returns false if the context has been closed(e.g. replaced or shut down).
+	 */
+	public boolean acquire() {
+		while(true) {
+			var s = state.get();
+			if((s & CLOSED) != 0) return false;
+			if(state.compareAndSet(s, s + USER)) return true;
+		}
+	}
+	
+	public void release() {
+		var s = state.addAndGet(-USER);
+		if(s == RETIRED) this.closeRetired();
+	}
+	
+	/**
+	 * The context is closed once all users released it.
+	 */
+	public void retire() {
+		var s = state.updateAndGet(v -> v | RETIRED);
+		if(s == RETIRED) this.closeRetired();
+	}
+	
+	private void closeRetired() {
+		if(state.compareAndSet(RETIRED, RETIRED | CLOSED)) {
+			this.close();
+		}
+	}
+	
+	/**
+	 * Acquire the current context in the SERVLET context. See {@link #replace(ServletContext, Supplier)}
+	 * @return Returns null if there is no context or it has been shut down(not replaced).
+	 */
+	public static Context acquire(ServletContext context) {
+		return acquire(() -> from(context));
+	}
+	
+	/**
+	 * For jakarta servlet api.
+	 */
+	public static Context acquire(jakarta.servlet.ServletContext context) {
+		return acquire(() -> from(context));
+	}
+	
+	/**
+	 * Retry only if the context has been replaced by a new one meanwhile.
+	 */
+	private static Context acquire(Supplier<Context> current) {
+		Context last = null;
+		for(var result = current.get(); result != null && result != last; result = current.get()) {
+			if(result.acquire()) return result;
+			last = result; //Closed
+		}
+		return null;
+	}
+	
+	/**
+	 * Blue/green: build(make, register and parse) a new context and start it in background while 
+	 * this one keeps serving. Then the new one replaces this in the SERVLET context, and this one 
+	 * is closed once the users(see {@link #acquire(ServletContext)}) release it. If the new one fails 
+	 * to start, it's closed and this one keeps serving.
+	 */
+	public CompletableFuture<Context> replace(ServletContext context, Supplier<Context> builder){
+		return replace(builder, next -> next.cache(context));
+	}
+	
+	/**
+	 * For jakarta servlet api.
+	 */
+	public CompletableFuture<Context> replace(jakarta.servlet.ServletContext context, Supplier<Context> builder){
+		return replace(builder, next -> next.cache(context));
+	}
+	
+	/**
+	 * Blue/green: the publisher makes the new(started) context current with ONE reference flip.
+	 */
+	public CompletableFuture<Context> replace(Supplier<Context> builder, Consumer<Context> publisher){
+		var result = new CompletableFuture<Context>();
+		Hotpot.threadFactory("whale-replacer").newThread(() -> {
+			Context next = null;
+			try {
+				next = builder.get();
+				next.start();
+				publisher.accept(next);
+			}catch(RuntimeException | Error e) {
+				if(next != null) next.close();
+				LOGGER.log(Level.WARNING, "Failed to build the new context.", e);
+				result.completeExceptionally(e);
+				return;
+			}
+			this.retire();
+			result.complete(next);
+		}).start();
+		return result;
+	}
+	
+	/**
+	 * See {@link #shutdown()}, a module can be closed independently.
+	 */
 	@Override
 	public void close() {
-		this.cleanup();
-		this.crafts = null;
-		this.configs = null;
-		this.craftFactory = null;
-		LOGGER.info("The whale context has been destroyed.");
+		this.shutdown();
 	}
 	
-	private void cleanup() {
-		if(Hotpot.isNull(crafts)) return;
-		for(var craft : crafts.values()) {
-			craft.destroy();
+	/**
+	 * Close the context(and its modules in parallel). The managed objects are destroyed in 
+	 * reverse dependency order and the independent ones in parallel. Each object has 
+	 * whale.shutdown.timeout(5000ms by default) to close, and the whole shutdown has 
+	 * whale.shutdown.deadline(25000ms by default), the rest are skipped.
+	 */
+	public Shutdown.Report shutdown() {
+		state.updateAndGet(v -> v | CLOSED); //No new users
+		modules.values().parallelStream().forEach(Context::close);
+		if(parent != null) {
+			parent.modules.values().remove(this);
 		}
+		if(craftFactory != null) {
+			craftFactory.detach(); //No more rewiring
+		}
+		if(watcher != null) {
+			watcher.close();
+		}
+		var result = this.cleanup();
+		if(craftFactory != null) {
+			craftFactory.getWeaver().close();
+		}
+		synchronized(this) {
+			this.crafts = null;
+			this.configs = null;
+			this.craftFactory = null;
+		}
+		if(!result.isClean()) {
+			LOGGER.warning(result.toString());
+			result.getFailures().forEach((k, v) -> LOGGER.log(Level.WARNING, "Failed to close " + k, v));
+		}
+		LOGGER.info("The whale context has been destroyed.");
+		return result;
+	}
+	
+	private Shutdown.Report cleanup() {
+		if(Objects.isNull(craftFactory)) return new Shutdown.Report();
+		var weaver = craftFactory.getWeaver();
+		var timeout = weaver.getConfig("whale.shutdown.timeout", 5000);
+		var deadline = weaver.getConfig("whale.shutdown.deadline", 25000);
+		craftFactory.stop(timeout); //Built in background
+		this.refresh(); //Swapped by a reload or a background build
+		if(Hotpot.isNull(crafts)) return new Shutdown.Report();
+		var owned = new HashMap<String, Craft>();
+		crafts.forEach((k, v) -> {
+			if(!craftFactory.isImported(k)) owned.put(k, v);
+		});
+		var result = new Shutdown(owned, timeout, deadline).run();
 		this.crafts.clear();
+		return result;
 	}
-}
\ No newline at end of file
+}
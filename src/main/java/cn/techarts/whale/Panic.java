@@ -124,4 +124,28 @@ public class Panic extends RuntimeException {
 	public static Panic notAnInterface(Class<?> t) {
 		return new Panic("The class is not an interface: " + t.getName());
 	}
+	
+	public static Panic invalidBatch(String method, String bulk) {
+		return new Panic("Can not batch the method [" + method + "] into the bulk method [" + bulk + "].");
+	}
+	
+	public static Panic closed(String name) {
+		return new Panic("The [" + name + "] has been closed.");
+	}
+	
+	public static Panic invalidAsync(String method) {
+		return new Panic("The async method [" + method + "] must return void or CompletableFuture.");
+	}
+	
+	public static Panic rejected(String bulkhead) {
+		return new Panic("The call is rejected because the bulkhead [" + bulkhead + "] is full.");
+	}
+	
+	public static Panic circularReference(String key) {
+		return new Panic("The configuration [" + key + "] references itself directly or indirectly.");
+	}
+	
+	public static Panic duplicateCraft(String id, String file) {
+		return new Panic("The bean [" + id + "] in [" + file + "] has been defined already.");
+	}
 }
@@ -24,12 +24,23 @@ import java.lang.annotation.Target;
 
 /**
  * Execute the method to initialize the managed-object.<br>
- * IMPORTANT: A managed-object has only one initializer.
+ * IMPORTANT: A managed-object has only one initializer.<br>
+ * See {@link cn.techarts.whale.Context#ready()}
  * 
  * @author rocwon@gmail.com
  */
 @Retention(RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Ready {
-
+	/**
+	 * Run the initializer(of a singleton) on the container executor, the initializers 
+	 * of its dependents wait for it. An initializer returns a CompletionStage is async too.
+	 */
+	public boolean async() default false;
+	
+	/**
+	 * The milliseconds an async initializer is allowed, 0 means the configuration 
+	 * "whale.ready.timeout"(60000 by default).
+	 */
+	public long timeout() default 0;
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Execute the method after the configuration keys injected into the singleton are 
+ * reloaded and re-injected. The method has no parameter, or ONE parameter(Set&lt;String&gt;)
+ * to receive the changed keys.<br>
+ * IMPORTANT: A managed-object has only one refresher.
+ * 
+ * @author rocwon@gmail.com
+ */
+@Retention(RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Refresh {
+
+}
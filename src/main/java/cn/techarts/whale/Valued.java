@@ -27,7 +27,9 @@ import javax.inject.Qualifier;
  * <p>javax & jakarta</p>
  * The annotation allows developer to inject<br>
  * 1. an explicit value, or<br>
- * 2. a key of configuration in configs.properties. 
+ * 2. a key of configuration in configs.properties, or<br>
+ * 3. all keys under a prefix onto a POJO or record(e.g. prefix="db.primary"). 
+ *    A class annotated with a prefix is bound when it's constructed.
  * 
  * @author rocwon@gmail.com
  */
@@ -37,4 +39,5 @@ import javax.inject.Qualifier;
 public @interface Valued {
 	public String key() default "";
 	public String val() default "";
+	public String prefix() default "";
 }
\ No newline at end of file
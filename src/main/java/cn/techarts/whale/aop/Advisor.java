@@ -30,14 +30,3 @@ public interface Advisor {
 	 */
 	public Object advise(Object[] args, Object result, Throwable threw);
 }
-
-/**
- * Ignored the advisor, it is nothing to do.
- */
-class NullAdvisor implements Advisor{
-	@Override
-	public Object advise(Object[] args, Object result, Throwable threw) {
-		return null;
-	}
-	
-}
\ No newline at end of file
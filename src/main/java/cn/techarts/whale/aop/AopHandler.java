@@ -20,6 +20,8 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import cn.techarts.whale.Panic;
 
@@ -28,27 +30,49 @@ import cn.techarts.whale.Panic;
  */
 public class AopHandler implements InvocationHandler {
 	private Object target;
+	private Object owner;
+	private Weaver weaver;
+	private Map<Method, Joinpoint> joinpoints;
+	
+	/**
+	 * The handlers created without a weaver share it(it's never closed).
+	 */
+	private static final Weaver SHARED = new Weaver(null);
 	
 	public AopHandler(Object target) {
+		this(target, null);
+	}
+	
+	public AopHandler(Object target, Weaver weaver) {
+		this(target, weaver, target);
+	}
+	
+	/**
+	 * @param owner The craft the target belongs to, the instances of a craft share its batchers.
+	 */
+	public AopHandler(Object target, Weaver weaver, Object owner) {
 		this.target = target;
+		this.owner = owner != null ? owner : target;
+		this.joinpoints = new ConcurrentHashMap<>(16);
+		this.weaver = weaver != null ? weaver : SHARED;
 	}
 	
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		var advise = method.getAnnotation(Advise.class);
-		if(advise == null) {
+		var joinpoint = getJoinpoint(method);
+		if(joinpoint.isPlain()) {
 			return method.invoke(target, args);
 		}
-		var last = getAdvisor(advise.last());
-		var threw = getAdvisor(advise.threw());
-		var after = getAdvisor(advise.after());
-		var before = getAdvisor(advise.before());
+		var last = joinpoint.getLast();
+		var threw = joinpoint.getThrew();
+		var after = joinpoint.getAfter();
+		var before = joinpoint.getBefore();
 		
 		try{
 			if(before != null) {
 				before.advise(args, null, null);
 			}
-			var result = method.invoke(target, args);
+			var result = joinpoint.proceed(target, method, args);
 			if(after == null) return result;
 			return after.advise(args, result, null);
 		}catch(Throwable e) {
@@ -64,10 +88,17 @@ public class AopHandler implements InvocationHandler {
 		}
 	}
 	
-	private Advisor getAdvisor(Class<? extends Advisor> arg) {
-		if("ZeroAdvisor".equals(arg.getSimpleName())) {
-			return null;
-		}
+	private Joinpoint getJoinpoint(Method method) {
+		var result = joinpoints.get(method);
+		if(result != null) return result;
+		return joinpoints.computeIfAbsent(method, m->new Joinpoint(m, target, owner, weaver));
+	}
+	
+	/**
+	 * Instance the advisor ONCE when the joinpoint is resolved, it's reused by all calls.
+	 */
+	static Advisor getAdvisor(Class<? extends Advisor> arg) {
+		if(arg == null) return null;
 		try {
 			return arg.getDeclaredConstructor().newInstance();
 		}catch(Exception e) {
@@ -87,7 +118,30 @@ public class AopHandler implements InvocationHandler {
 		}
 	}
 	
+	/**
+	 * @return The target behind the proxy, or the object itself if it's not advised.
+	 */
+	public static Object unwrap(Object object) {
+		if(object == null || !Proxy.isProxyClass(object.getClass())) return object;
+		var handler = Proxy.getInvocationHandler(object);
+		return handler instanceof AopHandler ? ((AopHandler)handler).target : object;
+	}
+	
 	public static Object create(Object target, Class<?> t) {
+		return create(target, t, null);
+	}
+	
+	/**
+	 * @param weaver The container-scoped weaver that the built-in interceptors work with.
+	 */
+	public static Object create(Object target, Class<?> t, Weaver weaver) {
+		return create(target, t, weaver, target);
+	}
+	
+	/**
+	 * @param owner The craft the target belongs to(e.g. the prototype instances share one batcher).
+	 */
+	public static Object create(Object target, Class<?> t, Weaver weaver, Object owner) {
 		if(t == null) return target;
 		if(!t.isInterface()) {
 			throw Panic.notAnInterface(t);
@@ -95,7 +149,7 @@ public class AopHandler implements InvocationHandler {
 		var cl = target.getClass().getClassLoader();
 		var ifs = target.getClass().getInterfaces();
 		if(ifs == null || ifs.length == 0)return target;
-		var handler = new AopHandler(target);
+		var handler = new AopHandler(target, weaver, owner);
 		return t.cast(Proxy.newProxyInstance(cl, ifs, handler));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * Continue the invocation on the dispatcher and return immediately.
+ * 
+ * @author rocwon@gmail.com
+ */
+class AsyncInterceptor implements Interceptor {
+	private boolean future;
+	private Dispatcher dispatcher;
+	private Advisor threw;
+	private static final Logger LOGGER = Hotpot.getLogger();
+	
+	AsyncInterceptor(Dispatcher dispatcher, boolean future, Advisor threw) {
+		this.threw = threw;
+		this.future = future;
+		this.dispatcher = dispatcher;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		var result = future ? new CompletableFuture<Object>() : null;
+		dispatcher.execute(()->{
+			try {
+				var value = invocation.proceed();
+				if(result == null) return;
+				if(value == null) {
+					result.complete(null);
+				}else {
+					((CompletableFuture<?>)value).whenComplete((v, e)->{
+						if(e == null) {
+							result.complete(v);
+						}else {
+							failed(invocation, result, e);
+						}
+					});
+				}
+			}catch(Throwable e) {
+				failed(invocation, result, e);
+			}
+		});
+		return result;
+	}
+	
+	private void failed(Invocation invocation, CompletableFuture<Object> result, Throwable e) {
+		dispatcher.fail();
+		var cause = e instanceof InvocationTargetException ? e.getCause() : e;
+		if(threw != null) {
+			try {
+				var value = threw.advise(invocation.getArgs(), null, cause);
+				if(result != null) result.complete(value);
+			}catch(Throwable ex) {
+				if(result != null) result.completeExceptionally(ex);
+			}
+		}else if(result != null) {
+			result.completeExceptionally(cause);
+		}else {
+			var name = invocation.getMethod().getName();
+			LOGGER.log(Level.WARNING, "Failed to execute the async method: " + name, cause);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesce the concurrent calls of a single-item method into bulk calls.<p>
+ * The method MUST have exactly ONE parameter, and the bulk method on the same
+ * bean MUST accept a List of these parameters and return either a Map(keyed by
+ * the parameter) or a List(in the same order). The thresholds can be overridden
+ * via configuration keys:<br>
+ * whale.batch.[name].size=64<br>
+ * whale.batch.[name].linger=2 (Milliseconds)<p>
+ * The batcher is the innermost interceptor and it ends the chain: the bulk method is 
+ * called instead of the method. The other interceptors(e.g. Cached) wrap it.
+ * 
+ * @author rocwon@gmail.com
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Batched {
+	/**
+	 * The name of bulk method, e.g. findAll(List&lt;Integer&gt; ids).
+	 */
+	public String bulk();
+	
+	/**
+	 * Flush when the queued calls reach the size.
+	 */
+	public int size() default 64;
+	
+	/**
+	 * Flush when the first queued call has waited for the milliseconds.
+	 */
+	public long linger() default 2;
+	
+	/**
+	 * The batch name in configuration. The default is "interface.method".
+	 */
+	public String value() default "";
+}
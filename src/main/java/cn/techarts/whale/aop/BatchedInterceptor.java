@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Hand over the single-item call to the batcher.<br>
+ * It ends the chain instead of proceeding(the bulk method is called instead), 
+ * so it MUST be the innermost interceptor, see {@link Weaver#weave}.
+ * 
+ * @author rocwon@gmail.com
+ */
+class BatchedInterceptor implements Interceptor {
+	private Batcher batcher;
+	
+	BatchedInterceptor(Batcher batcher) {
+		this.batcher = batcher;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		if(!invocation.isLast()) {
+			throw new IllegalStateException("Batched must be the innermost interceptor.");
+		}
+		return batcher.submit(invocation.getArgs()[0]);
+	}
+}
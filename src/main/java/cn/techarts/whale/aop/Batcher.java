@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * Queue the single-item calls and flush them to the bulk method on a dedicated thread
+ * when the size or the time threshold is reached. Each caller waits for its own result.
+ * 
+ * @author rocwon@gmail.com
+ */
+class Batcher implements Runnable, AutoCloseable {
+	private int size;
+	private long linger; //Nanoseconds
+	private String name;
+	private Method bulk;
+	private Object target;
+	private boolean keyed;
+	private Mpsc<Item> queue;
+	private ThreadFactory factory;
+	private AtomicInteger pending;
+	private volatile Thread flusher;
+	private volatile boolean closed;
+	
+	Batcher(String name, Object target, Method bulk, int size, long linger, ThreadFactory factory) {
+		this.name = name;
+		this.bulk = bulk;
+		this.target = target;
+		this.factory = factory;
+		this.size = Math.max(1, size);
+		this.queue = new Mpsc<>();
+		this.pending = new AtomicInteger();
+		this.linger = Math.max(0, linger) * 1_000_000L;
+		this.keyed = Map.class.isAssignableFrom(bulk.getReturnType());
+	}
+	
+	/**
+	 * Find the bulk method on the target class.
+	 */
+	static Method bulkOf(Method method, Object target, String bulk) {
+		if(method.getParameterCount() != 1) {
+			throw Panic.invalidBatch(method.getName(), bulk);
+		}
+		for(var m : target.getClass().getMethods()) {
+			if(!m.getName().equals(bulk)) continue;
+			if(m.getParameterCount() != 1) continue;
+			if(!m.getParameterTypes()[0].isAssignableFrom(List.class)) continue;
+			var r = m.getReturnType();
+			if(Map.class.isAssignableFrom(r) || List.class.isAssignableFrom(r)) return m;
+		}
+		throw Panic.invalidBatch(method.getName(), bulk);
+	}
+	
+	Object submit(Object arg) throws Throwable {
+		if(closed) throw Panic.closed(name);
+		var item = new Item(arg);
+		queue.offer(item);
+		var n = pending.incrementAndGet();
+		if(n == 1 || n >= size) {
+			LockSupport.unpark(flusher());
+		}
+		if(closed) drain(); //Closed after queued
+		try {
+			return item.future.get();
+		}catch(ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private Thread flusher() {
+		var result = this.flusher;
+		if(result != null) return result;
+		synchronized(this) {
+			if(this.flusher == null) {
+				this.flusher = factory.newThread(this);
+				this.flusher.start();
+			}
+			return this.flusher;
+		}
+	}
+	
+	@Override
+	public void run() {
+		while(!closed) {
+			if(pending.get() == 0) {
+				LockSupport.park(this);
+				continue;
+			}
+			var deadline = System.nanoTime() + linger;
+			while(!closed && pending.get() < size) {
+				var left = deadline - System.nanoTime();
+				if(left <= 0) break;
+				LockSupport.parkNanos(this, left);
+			}
+			flush();
+		}
+		while(pending.get() > 0) flush(); //Drain
+	}
+	
+	private void flush() {
+		var items = new ArrayList<Item>(size);
+		for(int i = 0; i < size; i++) {
+			var item = queue.poll();
+			if(item == null) break;
+			items.add(item);
+		}
+		if(items.isEmpty()) return;
+		pending.addAndGet(-items.size());
+		var args = new ArrayList<Object>(items.size());
+		for(var item : items) args.add(item.arg);
+		try {
+			var result = bulk.invoke(target, args);
+			if(keyed) {
+				var map = (Map<?, ?>)result;
+				for(var item : items) {
+					item.future.complete(map != null ? map.get(item.arg) : null);
+				}
+			}else {
+				var list = (List<?>)result;
+				if(list == null || list.size() != items.size()) {
+					throw Panic.invalidBatch(name, bulk.getName());
+				}
+				for(int i = 0; i < items.size(); i++) {
+					items.get(i).future.complete(list.get(i));
+				}
+			}
+		}catch(Throwable e) {
+			for(var item : items) item.future.completeExceptionally(e);
+		}
+	}
+	
+	private void drain() throws InterruptedException {
+		flusher().join();
+		synchronized(this) {
+			while(pending.get() > 0) flush();
+		}
+	}
+	
+	/**
+	 * Queued calls are flushed before the flusher exits.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		var thread = this.flusher;
+		if(thread == null) return;
+		LockSupport.unpark(thread);
+	}
+	
+	private static final class Item {
+		private Object arg;
+		private CompletableFuture<Object> future;
+		
+		Item(Object arg) {
+			this.arg = arg;
+			this.future = new CompletableFuture<>();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Limit the concurrent calls of the method(or all methods if the interface is annotated).<p>
+ * The excess calls wait in a bounded queue, or are rejected immediately with a Panic
+ * that goes to the threw advisor. The limits can be overridden via configuration keys:<br>
+ * whale.bulkhead.[name].limit=16<br>
+ * whale.bulkhead.[name].queue=0<br>
+ * whale.bulkhead.[name].timeout=100 (Milliseconds)
+ * 
+ * @author rocwon@gmail.com
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Bulkhead {
+	/**
+	 * The bulkhead name. The methods with the same name share the limit.<br>
+	 * The default is "interface.method", or "interface" if the interface is annotated.
+	 */
+	public String value() default "";
+	
+	/**
+	 * The maximum concurrent calls.
+	 */
+	public int limit() default 16;
+	
+	/**
+	 * The maximum calls waiting for a permit, 0 means rejecting immediately.
+	 */
+	public int queue() default 0;
+	
+	/**
+	 * The maximum milliseconds a queued call waits for.
+	 */
+	public long timeout() default 100;
+}
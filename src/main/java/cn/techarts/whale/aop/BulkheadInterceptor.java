@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Hold a permit of the limiter during the invocation.
+ * 
+ * @author rocwon@gmail.com
+ */
+class BulkheadInterceptor implements Interceptor {
+	private Limiter limiter;
+	
+	BulkheadInterceptor(Limiter limiter) {
+		this.limiter = limiter;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		limiter.acquire();
+		try {
+			return invocation.proceed();
+		}finally {
+			limiter.release();
+		}
+	}
+}
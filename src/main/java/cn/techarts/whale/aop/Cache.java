@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded concurrent cache region with W-TinyLFU eviction and TTL.<p>
+ * New entries enter a small LRU window(1%). An entry leaving the window competes
+ * with the LRU victim of the probation segment, and the one with lower estimated
+ * frequency({@link Sketch}) is evicted. Entries hit in probation are promoted to
+ * the protected segment(80%). Reads reorder the segments only if the policy lock
+ * is free, so a hit never blocks. Concurrent loads of the same key are collapsed.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Cache {
+	private String name;
+	private long ttl; //Nanoseconds
+	private int maximum;
+	private Sketch sketch;
+	private int windowMaximum;
+	private int protectedMaximum;
+	private Segment window, probation, protect;
+	private ReentrantLock policy = new ReentrantLock();
+	private ConcurrentHashMap<Object, Node> data;
+	private Flights flights;
+	private LongAdder hits = new LongAdder(), misses = new LongAdder();
+	private LongAdder loads = new LongAdder(), evictions = new LongAdder();
+	
+	private static final Object NULL = new Object();
+	private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2, DEAD = 3;
+	
+	/**
+	 * @param maximum The maximum number of entries
+	 * @param ttl Time to live in seconds, 0 means never expired
+	 */
+	public Cache(String name, int maximum, long ttl) {
+		this.name = name;
+		this.maximum = Math.max(1, maximum);
+		this.ttl = ttl > 0 ? ttl * 1_000_000_000L : 0;
+		this.windowMaximum = Math.max(1, this.maximum / 100);
+		this.protectedMaximum = (int)((this.maximum - windowMaximum) * 0.8);
+		this.sketch = new Sketch(this.maximum);
+		this.data = new ConcurrentHashMap<>(Math.min(this.maximum, 1 << 16));
+		this.flights = new Flights();
+		this.window = new Segment();
+		this.probation = new Segment();
+		this.protect = new Segment();
+	}
+	
+	/**
+	 * Get the value or load it if absent. Only ONE thread loads a key at a time,
+	 * others wait and share its result or exception.
+	 */
+	public Object get(Object key, Call loader) throws Throwable {
+		var node = data.get(key);
+		if(node != null && !expired(node)) {
+			hits.increment();
+			afterRead(node);
+			return unmask(node.value);
+		}
+		misses.increment();
+		return flights.run(key, ()->{
+			var loaded = data.get(key); //Loaded by the previous flight
+			if(loaded != null && !expired(loaded)) {
+				return unmask(loaded.value);
+			}
+			var result = loader.call();
+			loads.increment();
+			put(key, result);
+			return result;
+		});
+	}
+	
+	/**
+	 * @return Returns null if the key is absent or expired.
+	 */
+	public Object getIfPresent(Object key) {
+		var node = data.get(key);
+		if(node == null || expired(node)) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		afterRead(node);
+		return unmask(node.value);
+	}
+	
+	public void put(Object key, Object value) {
+		var v = value != null ? value : NULL;
+		var expires = ttl > 0 ? System.nanoTime() + ttl : 0;
+		policy.lock();
+		try {
+			var node = data.get(key);
+			if(node != null) {
+				node.value = v;
+				node.expires = expires;
+				onAccess(node);
+				return;
+			}
+			node = new Node(key, v, expires);
+			data.put(key, node);
+			sketch.increment(key.hashCode());
+			window.append(node, WINDOW);
+			evict();
+		}finally {
+			policy.unlock();
+		}
+	}
+	
+	public void invalidate(Object key) {
+		policy.lock();
+		try {
+			var node = data.remove(key);
+			if(node != null) unlink(node);
+		}finally {
+			policy.unlock();
+		}
+	}
+	
+	public void invalidateAll() {
+		policy.lock();
+		try {
+			data.clear();
+			window.clear();
+			probation.clear();
+			protect.clear();
+		}finally {
+			policy.unlock();
+		}
+	}
+	
+	private boolean expired(Node node) {
+		if(node.expires == 0) return false;
+		if(node.expires - System.nanoTime() > 0) return false;
+		policy.lock();
+		try {
+			if(data.remove(node.key, node)) unlink(node);
+		}finally {
+			policy.unlock();
+		}
+		return true;
+	}
+	
+	private void afterRead(Node node) {
+		if(!policy.tryLock()) return; //Lossy: never block a hit
+		try {
+			sketch.increment(node.key.hashCode());
+			onAccess(node);
+		}finally {
+			policy.unlock();
+		}
+	}
+	
+	private void onAccess(Node node) {
+		switch(node.queue) {
+			case WINDOW:
+				window.moveToTail(node); break;
+			case PROBATION:
+				probation.remove(node);
+				protect.append(node, PROTECTED);
+				if(protect.size > protectedMaximum) {
+					var demoted = protect.head;
+					protect.remove(demoted);
+					probation.append(demoted, PROBATION);
+				}
+				break;
+			case PROTECTED:
+				protect.moveToTail(node); break;
+			default: break; //Removed already
+		}
+	}
+	
+	private void evict() {
+		while(window.size > windowMaximum) {
+			var candidate = window.head;
+			window.remove(candidate);
+			probation.append(candidate, PROBATION);
+		}
+		while(window.size + probation.size + protect.size > maximum) {
+			var victim = probation.head;
+			var candidate = probation.tail;
+			if(victim == null) {
+				victim = protect.head != null ? protect.head : window.head;
+			}else if(victim != candidate) {
+				var v = sketch.frequency(victim.key.hashCode());
+				var c = sketch.frequency(candidate.key.hashCode());
+				if(c <= v) victim = candidate; //Admission rejected
+			}
+			data.remove(victim.key, victim);
+			unlink(victim);
+			evictions.increment();
+		}
+	}
+	
+	private void unlink(Node node) {
+		switch(node.queue) {
+			case WINDOW: window.remove(node); break;
+			case PROBATION: probation.remove(node); break;
+			case PROTECTED: protect.remove(node); break;
+			default: break;
+		}
+		node.queue = DEAD;
+	}
+	
+	private static Object unmask(Object value) {
+		return value == NULL ? null : value;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getMaximum() {
+		return maximum;
+	}
+	
+	public int size() {
+		return data.size();
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getLoads() {
+		return loads.sum();
+	}
+	
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	public double getHitRate() {
+		var h = hits.sum();
+		var total = h + misses.sum();
+		return total == 0 ? 0d : (double)h / total;
+	}
+	
+	@Override
+	public String toString() {
+		return new StringBuilder(name)
+			.append("[size=").append(size())
+			.append(", maximum=").append(maximum)
+			.append(", hits=").append(getHits())
+			.append(", misses=").append(getMisses())
+			.append(", loads=").append(getLoads())
+			.append(", evictions=").append(getEvictions())
+			.append("]").toString();
+	}
+	
+	/**
+	 * The cache key composed of the target(identity), method and arguments.<br>
+	 * The regions are shared by name, so the implementations(or prototype instances) 
+	 * of the same interface must not see the results of each other.
+	 */
+	static final class Key {
+		private Object target;
+		private Object method;
+		private Object[] args;
+		private int hash;
+		
+		Key(Object target, Object method, Object[] args) {
+			this.target = target;
+			this.method = method;
+			this.args = args;
+			var h = 31 * System.identityHashCode(target) + method.hashCode();
+			this.hash = 31 * h + Arrays.deepHashCode(args);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) return true;
+			if(!(obj instanceof Key)) return false;
+			var other = (Key)obj;
+			if(hash != other.hash) return false;
+			if(target != other.target) return false;
+			if(!method.equals(other.method)) return false;
+			return Arrays.deepEquals(args, other.args);
+		}
+	}
+	
+	private static final class Node {
+		private Object key;
+		private int queue;
+		private Node prev, next;
+		private volatile long expires;
+		private volatile Object value;
+		
+		Node(Object key, Object value, long expires) {
+			this.key = key;
+			this.value = value;
+			this.expires = expires;
+		}
+	}
+	
+	/**
+	 * An access-ordered doubly linked list, guarded by the policy lock.
+	 */
+	private static final class Segment {
+		private int size;
+		private Node head, tail;
+		
+		void append(Node node, int queue) {
+			node.queue = queue;
+			node.next = null;
+			node.prev = tail;
+			if(tail == null) {
+				head = node;
+			}else {
+				tail.next = node;
+			}
+			tail = node;
+			size++;
+		}
+		
+		void remove(Node node) {
+			if(node.prev == null) {
+				head = node.next;
+			}else {
+				node.prev.next = node.next;
+			}
+			if(node.next == null) {
+				tail = node.prev;
+			}else {
+				node.next.prev = node.prev;
+			}
+			node.prev = node.next = null;
+			size--;
+		}
+		
+		void moveToTail(Node node) {
+			if(node == tail) return;
+			var queue = node.queue;
+			remove(node);
+			append(node, queue);
+		}
+		
+		void clear() {
+			for(var n = head; n != null;) {
+				var next = n.next;
+				n.prev = n.next = null;
+				n.queue = DEAD;
+				n = next;
+			}
+			head = tail = null;
+			size = 0;
+		}
+	}
+}
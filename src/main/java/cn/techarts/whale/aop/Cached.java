@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Cache the result of the method by its arguments.<p>
+ * The size and TTL can be overridden via configuration keys:<br>
+ * whale.cache.[region].size=10000<br>
+ * whale.cache.[region].ttl=60 (Seconds)
+ * 
+ * @author rocwon@gmail.com
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+	/**
+	 * The region name. The default is "interface.method".
+	 */
+	public String value() default "";
+	
+	/**
+	 * The maximum number of entries.
+	 */
+	public int size() default 1024;
+	
+	/**
+	 * Time to live in seconds after the entry is loaded. 0 means never expired.
+	 */
+	public long ttl() default 0;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Return the cached result if the arguments are seen before.
+ * 
+ * @author rocwon@gmail.com
+ */
+class CachedInterceptor implements Interceptor {
+	private Cache cache;
+	
+	CachedInterceptor(Cache cache) {
+		this.cache = cache;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		var key = new Cache.Key(invocation.getTarget(), invocation.getMethod(), invocation.getArgs());
+		return cache.get(key, invocation::proceed);
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * The container-managed executor of {@link Async} methods.<p>
+ * If threads is 0, every task runs on a new virtual thread(the default on Java 21+) or
+ * an idle pooled one, otherwise the tasks are queued for a fixed number of threads. 
+ * It's closed with the context.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Dispatcher implements AutoCloseable {
+	private ExecutorService executor;
+	private AtomicInteger queued, active;
+	private LongAdder completed, failed;
+	
+	public Dispatcher(ThreadFactory factory, int threads) {
+		this.queued = new AtomicInteger();
+		this.active = new AtomicInteger();
+		this.failed = new LongAdder();
+		this.completed = new LongAdder();
+		if(threads <= 0) {
+			this.executor = unbounded(factory);
+		}else {
+			this.executor = new ThreadPoolExecutor(threads, threads, 
+				0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+		}
+	}
+	
+	/**
+	 * Virtual threads are cheap and never pooled: one thread per task(Java 21+).
+	 * The method is called reflectively to keep the release 11 compatibility.
+	 */
+	private static ExecutorService unbounded(ThreadFactory factory) {
+		if(Hotpot.supportsVirtualThreads()) {
+			try {
+				var m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+				return (ExecutorService)m.invoke(null, factory);
+			}catch(ReflectiveOperationException e) {
+				//Fall back to the cached thread pool
+			}
+		}
+		return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 
+			60, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+	}
+	
+	public void execute(Runnable task) {
+		if(executor.isShutdown()) {
+			throw Panic.closed("dispatcher");
+		}
+		queued.incrementAndGet();
+		try {
+			executor.execute(()->run(task));
+		}catch(RejectedExecutionException e) {
+			queued.decrementAndGet(); //Never queued
+			throw e;
+		}
+	}
+	
+	private void run(Runnable task) {
+		queued.decrementAndGet();
+		active.incrementAndGet();
+		try {
+			task.run();
+		}catch(RuntimeException | Error e) {
+			failed.increment();
+			throw e;
+		}finally {
+			completed.increment();
+			active.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Count a failure that the task handled itself(e.g. an async method threw).
+	 */
+	void fail() {
+		failed.increment();
+	}
+	
+	/**
+	 * The number of tasks waiting for a thread.
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+	
+	/**
+	 * The number of running tasks.
+	 */
+	public int getActive() {
+		return active.get();
+	}
+	
+	/**
+	 * The number of finished tasks, including the failed ones.
+	 */
+	public long getCompleted() {
+		return completed.sum();
+	}
+	
+	public long getFailed() {
+		return failed.sum();
+	}
+	
+	/**
+	 * Wait for the running and queued tasks at most 5 seconds.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			if(executor.awaitTermination(5, TimeUnit.SECONDS)) return;
+			executor.shutdownNow();
+		}catch(InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return new StringBuilder("dispatcher[queued=").append(getQueued())
+			.append(", active=").append(getActive())
+			.append(", completed=").append(getCompleted())
+			.append(", failed=").append(getFailed())
+			.append("]").toString();
+	}
+}
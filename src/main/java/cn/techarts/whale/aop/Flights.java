@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The in-flight calls grouped by key. It's lock-free, the uncontended path
+ * costs a putIfAbsent and a remove on a ConcurrentHashMap.
+ * 
+ * @author rocwon@gmail.com
+ */
+class Flights {
+	private ConcurrentHashMap<Object, CompletableFuture<Object>> inflight;
+	
+	Flights() {
+		this.inflight = new ConcurrentHashMap<>(16);
+	}
+	
+	/**
+	 * Execute the call, or wait for the in-flight one with the same key.
+	 */
+	Object run(Object key, Call call) throws Throwable {
+		var future = new CompletableFuture<Object>();
+		var prior = inflight.putIfAbsent(key, future);
+		if(prior != null) return await(prior);
+		try {
+			var result = call.call();
+			future.complete(result);
+			return result;
+		}catch(Throwable e) {
+			future.completeExceptionally(e);
+			throw e;
+		}finally {
+			inflight.remove(key, future);
+		}
+	}
+	
+	int size() {
+		return inflight.size();
+	}
+	
+	private Object await(CompletableFuture<Object> future) throws Throwable {
+		try {
+			return future.get();
+		}catch(ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A striped log-linear histogram(HdrHistogram-style).<p>
+ * Values below 2^BITS are counted exactly, above that each power of two
+ * is split into 2^(BITS-1) linear sub-buckets, so the relative error is
+ * about 3%. Recording is lock-free and allocation-free: a thread picks
+ * a stripe by its id and increments one slot of an AtomicLongArray.
+ *
+ * @author rocwon@gmail.com
+ */
+class Histogram {
+	private static final int BITS = 6;
+	private static final int HALF = 1 << (BITS - 1);
+	private static final int MAX_BIT = 40; //About 18 minutes in nanoseconds
+	private static final long MAX_VALUE = (1L << MAX_BIT) - 1;
+	private static final int LENGTH = (MAX_BIT - BITS + 2) * HALF;
+
+	private final int mask;
+	private final AtomicLongArray[] stripes;
+
+	Histogram() {
+		var cpus = Runtime.getRuntime().availableProcessors();
+		var n = Integer.highestOneBit(Math.max(1, Math.min(cpus, 16)));
+		this.mask = n - 1;
+		this.stripes = new AtomicLongArray[n];
+		for(int i = 0; i < n; i++) {
+			stripes[i] = new AtomicLongArray(LENGTH);
+		}
+	}
+
+	void record(long value) {
+		var v = value < 0 ? 0 : (value > MAX_VALUE ? MAX_VALUE : value);
+		var id = Thread.currentThread().getId();
+		stripes[(int)(id ^ (id >>> 16)) & mask].incrementAndGet(indexOf(v));
+	}
+
+	/**
+	 * Merge all stripes into a plain array of counts.
+	 */
+	long[] snapshot() {
+		var result = new long[LENGTH];
+		for(var stripe : stripes) {
+			for(int i = 0; i < LENGTH; i++) {
+				result[i] += stripe.get(i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param counts A snapshot returned by {@link #snapshot()}
+	 * @param p The percentile in [0, 100]
+	 * @return The highest value equivalent of the bucket that the percentile falls into.
+	 */
+	static long percentile(long[] counts, double p) {
+		long total = 0;
+		for(var c : counts) total += c;
+		if(total == 0) return 0;
+		var q = Math.min(Math.max(p, 0d), 100d);
+		var rank = Math.max(1L, (long)Math.ceil(q / 100d * total));
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank) return highestOf(i);
+		}
+		return MAX_VALUE;
+	}
+
+	static int indexOf(long v) {
+		if(v < (HALF << 1)) return (int)v;
+		var shift = 63 - Long.numberOfLeadingZeros(v) - BITS + 1;
+		return (int)((shift * HALF) + (v >>> shift));
+	}
+
+	static long lowestOf(int index) {
+		if(index < (HALF << 1)) return index;
+		var shift = index / HALF - 1;
+		return ((long)(index - shift * HALF)) << shift;
+	}
+
+	static long highestOf(int index) {
+		if(index < (HALF << 1)) return index;
+		var shift = index / HALF - 1;
+		return lowestOf(index) + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * An invocation of an advised method passing through the interceptor chain.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Invocation {
+	private int index;
+	private Object target;
+	private Method method;
+	private Object[] args;
+	private Interceptor[] chain;
+	
+	Invocation(Object target, Method method, Object[] args, Interceptor[] chain) {
+		this.args = args;
+		this.chain = chain;
+		this.method = method;
+		this.target = target;
+	}
+	
+	/**
+	 * Call the next interceptor or the target method at the end of chain.<br>
+	 * The exception threw by the target method is wrapped in an InvocationTargetException.
+	 */
+	public Object proceed() throws Throwable {
+		if(index < chain.length) {
+			return chain[index++].intercept(this);
+		}
+		return method.invoke(target, args);
+	}
+	
+	/**
+	 * The current interceptor is the innermost one(no interceptor left to proceed).
+	 */
+	boolean isLast() {
+		return index == chain.length;
+	}
+	
+	public Object getTarget() {
+		return target;
+	}
+	
+	public Method getMethod() {
+		return method;
+	}
+	
+	public Object[] getArgs() {
+		return args;
+	}
+}
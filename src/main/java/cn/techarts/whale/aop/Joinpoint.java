@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * The advisors and interceptors of an advised method.<br>
+ * It's resolved ONCE per method instead of looking up the annotations and instancing the advisors on every call.
+ * 
+ * @author rocwon@gmail.com
+ */
+class Joinpoint {
+	private boolean plain;
+	private Interceptor[] chain;
+	private Advisor last;
+	private Advisor threw;
+	private Advisor after;
+	private Advisor before;
+	
+	Joinpoint(Method method, Object target, Object owner, Weaver weaver) {
+		var advise = method.getAnnotation(Advise.class);
+		if(advise != null) {
+			this.last = valid(advise.last());
+			this.threw = valid(advise.threw());
+			this.after = valid(advise.after());
+			this.before = valid(advise.before());
+		}
+		this.chain = weaver.weave(method, target, owner);
+		this.plain = advise == null && chain.length == 0;
+	}
+	
+	private Advisor valid(Class<? extends Advisor> arg){
+		return arg == NullAdvisor.class ? null : AopHandler.getAdvisor(arg);
+	}
+	
+	/**
+	 * Without any advisor and interceptor.
+	 */
+	boolean isPlain() {
+		return this.plain;
+	}
+	
+	Object proceed(Object target, Method method, Object[] args) throws Throwable {
+		if(chain.length != 0) {
+			return new Invocation(target, method, args, chain).proceed();
+		}
+		return method.invoke(target, args);
+	}
+	
+	Advisor getLast() {
+		return last;
+	}
+	
+	Advisor getThrew() {
+		return threw;
+	}
+	
+	Advisor getAfter() {
+		return after;
+	}
+	
+	Advisor getBefore() {
+		return before;
+	}
+}
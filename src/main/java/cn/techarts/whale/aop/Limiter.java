@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * The concurrency limit of a {@link Bulkhead}. The fast path is a CAS on the semaphore,
+ * only the calls beyond the limit may wait in the bounded queue.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Limiter {
+	private int limit;
+	private int queue;
+	private long timeout; //Nanoseconds
+	private String name;
+	private Semaphore permits;
+	private AtomicInteger waiting;
+	private LongAdder rejected;
+	
+	public Limiter(String name, int limit, int queue, long timeout) {
+		this.name = name;
+		this.limit = Math.max(1, limit);
+		this.queue = Math.max(0, queue);
+		this.timeout = Math.max(0, timeout) * 1_000_000L;
+		this.permits = new Semaphore(this.limit);
+		this.waiting = new AtomicInteger();
+		this.rejected = new LongAdder();
+	}
+	
+	/**
+	 * Acquire a permit or throw a Panic if the bulkhead is full.
+	 */
+	public void acquire() throws InterruptedException {
+		if(permits.tryAcquire()) return;
+		if(queue == 0) throw reject();
+		if(waiting.incrementAndGet() > queue) {
+			waiting.decrementAndGet();
+			throw reject();
+		}
+		try {
+			if(!permits.tryAcquire(timeout, TimeUnit.NANOSECONDS)) {
+				throw reject();
+			}
+		}finally {
+			waiting.decrementAndGet();
+		}
+	}
+	
+	public void release() {
+		permits.release();
+	}
+	
+	private Panic reject() {
+		rejected.increment();
+		return Panic.rejected(name);
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * The number of calls holding a permit.
+	 */
+	public int getInflight() {
+		return limit - permits.availablePermits();
+	}
+	
+	public int getWaiting() {
+		return waiting.get();
+	}
+	
+	public long getRejected() {
+		return rejected.sum();
+	}
+	
+	@Override
+	public String toString() {
+		return new StringBuilder(name)
+			.append("[limit=").append(limit)
+			.append(", inflight=").append(getInflight())
+			.append(", waiting=").append(getWaiting())
+			.append(", rejected=").append(getRejected())
+			.append("]").toString();
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free multi-producer single-consumer queue(Vyukov).<br>
+ * Producers swap the tail atomically, ONLY one thread may call {@link #poll()}.
+ * 
+ * @author rocwon@gmail.com
+ */
+class Mpsc<E> {
+	private Node<E> head;
+	private AtomicReference<Node<E>> tail;
+	
+	Mpsc() {
+		var stub = new Node<E>(null);
+		this.head = stub;
+		this.tail = new AtomicReference<>(stub);
+	}
+	
+	void offer(E e) {
+		var node = new Node<E>(e);
+		tail.getAndSet(node).next = node;
+	}
+	
+	/**
+	 * @return Returns null if the queue is empty(or the producer is linking).
+	 */
+	E poll() {
+		var next = head.next;
+		if(next == null) return null;
+		var result = next.value;
+		next.value = null;
+		this.head = next;
+		return result;
+	}
+	
+	private static final class Node<E> {
+		private E value;
+		private volatile Node<E> next;
+		
+		Node(E value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Share the result of the in-flight call with identical arguments.
+ * 
+ * @author rocwon@gmail.com
+ */
+class SingleflightInterceptor implements Interceptor {
+	private Flights flights = new Flights();
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		var key = new Cache.Key(invocation.getTarget(), invocation.getMethod(), invocation.getArgs());
+		return flights.run(key, invocation::proceed);
+	}
+}
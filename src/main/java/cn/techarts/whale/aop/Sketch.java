@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * A count-min sketch with 4-bit counters estimating the access frequency of keys.<br>
+ * All counters are halved periodically so that the history ages out(TinyLFU).<br>
+ * It is NOT thread-safe, the owner must guard it.
+ * 
+ * @author rocwon@gmail.com
+ */
+class Sketch {
+	private int size;
+	private int mask;
+	private long[] table;
+	private int sampleSize;
+	
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long[] SEEDS = { 
+		0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 
+		0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+	
+	Sketch(int maximum) {
+		var length = Integer.highestOneBit(Math.max(8, maximum - 1) << 1);
+		this.mask = length - 1;
+		this.table = new long[length];
+		this.sampleSize = 10 * Math.max(8, maximum);
+	}
+	
+	int frequency(int hash) {
+		var result = 15;
+		for(int i = 0; i < 4; i++) {
+			var h = indexOf(hash, i);
+			var offset = (int)(h >>> 32 & 15) << 2;
+			var count = (int)((table[(int)h & mask] >>> offset) & 15);
+			result = Math.min(result, count);
+		}
+		return result;
+	}
+	
+	void increment(int hash) {
+		var added = false;
+		for(int i = 0; i < 4; i++) {
+			var h = indexOf(hash, i);
+			var index = (int)h & mask;
+			var offset = (int)(h >>> 32 & 15) << 2;
+			if(((table[index] >>> offset) & 15) != 15) {
+				table[index] += 1L << offset;
+				added = true;
+			}
+		}
+		if(added && ++size >= sampleSize) reset();
+	}
+	
+	private void reset() {
+		for(int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		this.size = size >>> 1;
+	}
+	
+	private long indexOf(int hash, int i) {
+		var h = (hash + SEEDS[i]) * SEEDS[i];
+		return h ^ (h >>> 29);
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Record the latency of the method into a timing.
+ * 
+ * @author rocwon@gmail.com
+ */
+class TimedInterceptor implements Interceptor{
+	private Timing timing;
+	
+	TimedInterceptor(Timing timing) {
+		this.timing = timing;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		var failed = true;
+		var start = System.nanoTime();
+		try {
+			var result = invocation.proceed();
+			failed = false;
+			return result;
+		}finally {
+			timing.record(System.nanoTime() - start, failed);
+		}
+	}
+}
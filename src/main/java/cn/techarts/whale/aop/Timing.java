@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency histogram, calls and errors of a {@link Timed} method.<br>
+ * All latencies are in nanoseconds.
+ *
+ * @author rocwon@gmail.com
+ */
+public class Timing {
+	private String name;
+	private LongAdder calls;
+	private LongAdder errors;
+	private LongAdder elapsed;
+	private LongAccumulator max;
+	private Histogram histogram;
+
+	public Timing(String name) {
+		this.name = name;
+		this.calls = new LongAdder();
+		this.errors = new LongAdder();
+		this.elapsed = new LongAdder();
+		this.histogram = new Histogram();
+		this.max = new LongAccumulator(Math::max, 0L);
+	}
+
+	/**
+	 * Record a call. It's lock-free and allocation-free.
+	 */
+	public void record(long nanos, boolean failed) {
+		calls.increment();
+		if(failed) errors.increment();
+		elapsed.add(nanos);
+		max.accumulate(nanos);
+		histogram.record(nanos);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public long getMean() {
+		var n = calls.sum();
+		return n == 0 ? 0 : elapsed.sum() / n;
+	}
+
+	/**
+	 * @param p The percentile in [0, 100], e.g. 50, 99, 99.9
+	 */
+	public long percentile(double p) {
+		var result = Histogram.percentile(histogram.snapshot(), p);
+		return Math.min(result, max.get());
+	}
+
+	/**
+	 * Compute several percentiles against ONE snapshot.
+	 */
+	public long[] percentiles(double... ps) {
+		var result = new long[ps.length];
+		var counts = histogram.snapshot();
+		for(int i = 0; i < ps.length; i++) {
+			result[i] = Math.min(Histogram.percentile(counts, ps[i]), max.get());
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		var ps = percentiles(50, 90, 99, 99.9);
+		return new StringBuilder(name)
+			.append("[calls=").append(getCalls())
+			.append(", errors=").append(getErrors())
+			.append(", mean=").append(getMean())
+			.append(", p50=").append(ps[0])
+			.append(", p90=").append(ps[1])
+			.append(", p99=").append(ps[2])
+			.append(", p999=").append(ps[3])
+			.append(", max=").append(getMax())
+			.append("]").toString();
+	}
+}
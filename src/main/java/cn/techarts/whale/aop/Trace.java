@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * A record of an advised call exported from the {@link Tracer}.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Trace {
+	private String bean;
+	private String method;
+	private String thread;
+	private long start; //System.nanoTime()
+	private long duration;
+	private boolean error;
+	
+	Trace(String bean, String method, String thread, long start, long duration, boolean error) {
+		this.bean = bean;
+		this.error = error;
+		this.start = start;
+		this.thread = thread;
+		this.method = method;
+		this.duration = duration;
+	}
+	
+	public String getBean() {
+		return bean;
+	}
+	
+	public String getMethod() {
+		return method;
+	}
+	
+	public String getThread() {
+		return thread;
+	}
+	
+	/**
+	 * The value of System.nanoTime() when the call started.
+	 */
+	public long getStart() {
+		return start;
+	}
+	
+	public long getDuration() {
+		return duration;
+	}
+	
+	public boolean isError() {
+		return error;
+	}
+	
+	@Override
+	public String toString() {
+		return new StringBuilder(bean).append('.').append(method)
+			.append("[thread=").append(thread)
+			.append(", start=").append(start)
+			.append(", duration=").append(duration)
+			.append(", error=").append(error)
+			.append("]").toString();
+	}
+}
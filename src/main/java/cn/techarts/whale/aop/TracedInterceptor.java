@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+/**
+ * Record the sampled call into the ring buffer of current thread.
+ * 
+ * @author rocwon@gmail.com
+ */
+class TracedInterceptor implements Interceptor {
+	private int id;
+	private Tracer tracer;
+	
+	TracedInterceptor(Tracer tracer, int id) {
+		this.id = id;
+		this.tracer = tracer;
+	}
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		var ring = tracer.ring();
+		if(ring == null) return invocation.proceed();
+		var failed = true;
+		var start = System.nanoTime();
+		try {
+			var result = invocation.proceed();
+			failed = false;
+			return result;
+		}finally {
+			ring.record(id, start, System.nanoTime() - start, failed);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Record advised calls into a bounded set of preallocated ring buffers.<p>
+ * The rings are striped by the thread id, so the memory does not grow with the threads
+ * (e.g. virtual threads) and recording is lock-free and allocation-free. A writer claims
+ * a slot and publishes it with a sequence, a reader discards the slots being overwritten.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Tracer {
+	private int sample;
+	private Ring[] rings;
+	private volatile String[] beans;
+	private volatile String[] methods;
+	private Map<List<String>, Integer> ids;
+	
+	private static final int MAX_STRIPES = 64;
+	
+	public Tracer(int size, int sample) {
+		this.sample = Math.max(1, sample);
+		this.beans = new String[0];
+		this.methods = new String[0];
+		this.ids = new ConcurrentHashMap<>(64);
+		this.rings = new Ring[stripes()];
+		for(int i = 0; i < rings.length; i++) {
+			rings[i] = new Ring(Math.max(1, size));
+		}
+	}
+	
+	//A power of 2 which is not less than 2 * CPUs
+	private static int stripes() {
+		var cpus = Runtime.getRuntime().availableProcessors();
+		var result = Integer.highestOneBit(Math.max(1, cpus * 2 - 1) << 1);
+		return Math.min(MAX_STRIPES, result);
+	}
+	
+	/**
+	 * Register a traced method ONCE and return its id, the instances of a bean share it.
+	 */
+	int register(String bean, String method) {
+		var key = List.of(bean, method);
+		var result = ids.get(key);
+		if(result != null) return result;
+		return ids.computeIfAbsent(key, k -> append(bean, method));
+	}
+	
+	/**
+	 * The number of registered methods.
+	 */
+	public int size() {
+		return methods.length;
+	}
+	
+	private synchronized int append(String bean, String method) {
+		var n = methods.length;
+		var b = new String[n + 1];
+		var m = new String[n + 1];
+		System.arraycopy(beans, 0, b, 0, n);
+		System.arraycopy(methods, 0, m, 0, n);
+		b[n] = bean;
+		m[n] = method;
+		this.beans = b;
+		this.methods = m;
+		return n;
+	}
+	
+	/**
+	 * @return Returns null if the call is not sampled.
+	 */
+	Ring ring() {
+		if(sample > 1 && ThreadLocalRandom.current().nextInt(sample) != 0) return null;
+		var id = Thread.currentThread().getId();
+		return rings[(int)id & (rings.length - 1)];
+	}
+	
+	/**
+	 * Export the most recent N records of all threads, the latest comes first.
+	 */
+	public List<Trace> recent(int n) {
+		var all = new ArrayList<Trace>();
+		var b = this.beans;
+		var m = this.methods;
+		for(var ring : rings) {
+			ring.export(all, b, m);
+		}
+		all.sort(Comparator.comparingLong(Trace::getStart).reversed());
+		return n < all.size() ? new ArrayList<>(all.subList(0, n)) : all;
+	}
+	
+	public void clear() {
+		for(var ring : rings) ring.clear();
+	}
+	
+	static final class Ring {
+		private int mask;
+		private int[] ids;
+		private long[] starts;
+		private long[] durations;
+		private boolean[] errors;
+		private String[] threads;
+		private AtomicLong claimed;
+		private AtomicLongArray seqs; //The sequence of the record in a slot, -1 means being written
+		
+		Ring(int size) {
+			var length = Integer.highestOneBit(Math.max(2, size - 1) << 1);
+			this.mask = length - 1;
+			this.ids = new int[length];
+			this.starts = new long[length];
+			this.durations = new long[length];
+			this.errors = new boolean[length];
+			this.threads = new String[length];
+			this.claimed = new AtomicLong();
+			this.seqs = new AtomicLongArray(length);
+			for(int i = 0; i < length; i++) seqs.set(i, -1);
+		}
+		
+		void record(int id, long start, long duration, boolean error) {
+			var k = claimed.getAndIncrement();
+			var i = (int)k & mask;
+			seqs.set(i, -1);
+			VarHandle.storeStoreFence();
+			ids[i] = id;
+			starts[i] = start;
+			durations[i] = duration;
+			errors[i] = error;
+			threads[i] = Thread.currentThread().getName();
+			seqs.set(i, k); //Publish
+		}
+		
+		void export(List<Trace> result, String[] beans, String[] methods) {
+			var length = mask + 1;
+			var to = claimed.get();
+			for(var k = Math.max(0, to - length); k < to; k++) {
+				var i = (int)k & mask;
+				if(seqs.get(i) != k) continue; //Not published yet or overwritten
+				var id = ids[i];
+				var start = starts[i];
+				var duration = durations[i];
+				var error = errors[i];
+				var thread = threads[i];
+				VarHandle.loadLoadFence();
+				if(seqs.get(i) != k) continue; //Overwritten during the copy
+				if(id >= methods.length) continue;
+				result.add(new Trace(beans[id], methods[id], thread, start, duration, error));
+			}
+		}
+		
+		void clear() {
+			for(int i = 0; i <= mask; i++) seqs.set(i, -1);
+		}
+	}
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * The weaver resolves the built-in interceptors of advised methods and holds
+ * their container-scoped state (e.g. timings, caches, limiters and traces). Each context owns ONE weaver.<p>
+ * The outermost interceptor is applied first: Async > Traced > Timed > Bulkhead > Cached > Singleflight > Batched.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Weaver implements AutoCloseable {
+	private volatile Map<String, String> configs;
+	private Map<String, Timing> timings;
+	private Map<String, Cache> caches;
+	private Map<String, Limiter> limiters;
+	private Map<List<Object>, Batcher> batchers;
+	private ThreadFactory threadFactory;
+	private volatile Dispatcher dispatcher;
+	private volatile Tracer tracer;
+	private List<AutoCloseable> resources;
+	
+	private static final Logger LOGGER = Hotpot.getLogger();
+	private static final Interceptor[] NONE = new Interceptor[0];
+	
+	public Weaver(Map<String, String> configs) {
+		this.timings = new ConcurrentHashMap<>(64);
+		this.caches = new ConcurrentHashMap<>(64);
+		this.limiters = new ConcurrentHashMap<>(64);
+		this.batchers = new ConcurrentHashMap<>(16);
+		this.resources = new CopyOnWriteArrayList<>();
+		this.threadFactory = Hotpot.threadFactory("whale-weaver");
+		this.configs = configs != null ? configs : Map.of();
+	}
+	
+	/**
+	 * Resolve the interceptor chain of the method. The outermost comes first.<br>
+	 * The batcher ends the chain, so it's always the innermost one.
+	 * @param owner The craft of the target, see {@link #batcher}.
+	 */
+	Interceptor[] weave(Method method, Object target, Object owner) {
+		var result = new ArrayList<Interceptor>(4);
+		if(method.isAnnotationPresent(Async.class)) {
+			result.add(async(method));
+		}
+		if(method.isAnnotationPresent(Traced.class) || 
+		   method.getDeclaringClass().isAnnotationPresent(Traced.class)) {
+			var id = getTracer().register(target.getClass().getName(), method.getName());
+			result.add(new TracedInterceptor(getTracer(), id));
+		}
+		var timed = method.getAnnotation(Timed.class);
+		if(timed != null) {
+			result.add(new TimedInterceptor(timing(nameOf(method, timed.value()))));
+		}
+		var limiter = limiter(method);
+		if(limiter != null) {
+			result.add(new BulkheadInterceptor(limiter));
+		}
+		var cached = method.getAnnotation(Cached.class);
+		if(cached != null) {
+			var region = nameOf(method, cached.value());
+			result.add(new CachedInterceptor(cache(region, cached.size(), cached.ttl())));
+		}
+		if(method.isAnnotationPresent(Singleflight.class)) {
+			result.add(new SingleflightInterceptor());
+		}
+		var batched = method.getAnnotation(Batched.class);
+		if(batched != null) {
+			result.add(new BatchedInterceptor(batcher(method, target, owner, batched))); //Innermost
+		}
+		return result.isEmpty() ? NONE : result.toArray(NONE);
+	}
+	
+	static String nameOf(Method method, String name) {
+		if(name != null && !name.isBlank()) return name;
+		return method.getDeclaringClass().getName() + "." + method.getName();
+	}
+	
+	/**
+	 * Get or create the timing with the given name.
+	 */
+	public Timing timing(String name) {
+		return timings.computeIfAbsent(name, Timing::new);
+	}
+	
+	/**
+	 * @return Returns null if the timing does not exist.
+	 */
+	public Timing getTiming(String name) {
+		if(name == null) return null;
+		return timings.get(name);
+	}
+	
+	public Map<String, Timing> getTimings(){
+		return Collections.unmodifiableMap(timings);
+	}
+	
+	private Interceptor async(Method method) {
+		var type = method.getReturnType();
+		var future = CompletableFuture.class == type;
+		if(!future && type != void.class) {
+			throw Panic.invalidAsync(method.getName());
+		}
+		Advisor threw = null;
+		var advise = method.getAnnotation(Advise.class);
+		if(advise != null && advise.threw() != NullAdvisor.class) {
+			threw = AopHandler.getAdvisor(advise.threw());
+		}
+		return new AsyncInterceptor(getDispatcher(), future, threw);
+	}
+	
+	/**
+	 * The executor of async methods. The threads can be set via the key "whale.async.threads",
+	 * 0 means unbounded(default if virtual threads are supported).
+	 */
+	public Dispatcher getDispatcher() {
+		var result = this.dispatcher;
+		if(result != null) return result;
+		synchronized(this) {
+			if(this.dispatcher == null) {
+				var cpus = Runtime.getRuntime().availableProcessors();
+				var threads = Hotpot.supportsVirtualThreads() ? 0 : cpus * 2;
+				threads = (int)getConfig("whale.async.threads", threads);
+				var factory = Hotpot.threadFactory("whale-async");
+				this.dispatcher = manage(new Dispatcher(factory, threads));
+			}
+			return this.dispatcher;
+		}
+	}
+	
+	/**
+	 * The ring buffers of the methods annotated with Traced. 
+	 * The size and sample rate can be set via the keys "whale.trace.size" and "whale.trace.sample".
+	 */
+	public Tracer getTracer() {
+		var result = this.tracer;
+		if(result != null) return result;
+		synchronized(this) {
+			if(this.tracer == null) {
+				var size = getConfig("whale.trace.size", 256);
+				var sample = getConfig("whale.trace.sample", 1);
+				this.tracer = new Tracer((int)size, (int)sample);
+			}
+			return this.tracer;
+		}
+	}
+	
+	private Limiter limiter(Method method) {
+		String name = null;
+		var bulkhead = method.getAnnotation(Bulkhead.class);
+		if(bulkhead != null) {
+			name = nameOf(method, bulkhead.value());
+		}else {
+			var type = method.getDeclaringClass();
+			bulkhead = type.getAnnotation(Bulkhead.class);
+			if(bulkhead == null) return null;
+			var n = bulkhead.value();
+			name = n.isBlank() ? type.getName() : n;
+		}
+		var b = bulkhead;
+		return limiters.computeIfAbsent(name, key->{
+			var limit = getConfig("whale.bulkhead." + key + ".limit", b.limit());
+			var queue = getConfig("whale.bulkhead." + key + ".queue", b.queue());
+			var timeout = getConfig("whale.bulkhead." + key + ".timeout", b.timeout());
+			return new Limiter(key, (int)limit, (int)queue, timeout);
+		});
+	}
+	
+	/**
+	 * @return Returns null if the bulkhead does not exist.
+	 */
+	public Limiter getLimiter(String name) {
+		if(name == null) return null;
+		return limiters.get(name);
+	}
+	
+	public Map<String, Limiter> getLimiters(){
+		return Collections.unmodifiableMap(limiters);
+	}
+	
+	/**
+	 * ONE batcher(and its flusher thread) per craft and method: the prototype instances 
+	 * of a craft share it, and the bulk method is called on the first instance.
+	 */
+	private Batcher batcher(Method method, Object target, Object owner, Batched batched) {
+		return batchers.computeIfAbsent(List.of(owner, method), key -> {
+			var name = nameOf(method, batched.value());
+			var bulk = Batcher.bulkOf(method, target, batched.bulk());
+			var size = getConfig("whale.batch." + name + ".size", batched.size());
+			var linger = getConfig("whale.batch." + name + ".linger", batched.linger());
+			return manage(new Batcher(name, target, bulk, (int)size, linger, threadFactory));
+		});
+	}
+	
+	/**
+	 * Close and drop the batchers of the craft(e.g. it's replaced by a reload).
+	 */
+	public void release(Object owner) {
+		for(var entry : batchers.entrySet()) {
+			if(entry.getKey().get(0) != owner) continue;
+			var batcher = entry.getValue();
+			if(!batchers.remove(entry.getKey(), batcher)) continue;
+			resources.remove(batcher);
+			batcher.close();
+		}
+	}
+	
+	/**
+	 * The resource will be closed when the weaver is closed.
+	 */
+	public <T extends AutoCloseable> T manage(T resource) {
+		this.resources.add(resource);
+		return resource;
+	}
+	
+	/**
+	 * Get or create the cache region. The size and TTL in configuration take precedence.
+	 */
+	public Cache cache(String region, int size, long ttl) {
+		return caches.computeIfAbsent(region, r->{
+			var s = getConfig("whale.cache." + r + ".size", size);
+			var t = getConfig("whale.cache." + r + ".ttl", ttl);
+			return new Cache(r, (int)s, t);
+		});
+	}
+	
+	/**
+	 * @return Returns null if the cache region does not exist.
+	 */
+	public Cache getCache(String region) {
+		if(region == null) return null;
+		return caches.get(region);
+	}
+	
+	public Map<String, Cache> getCaches(){
+		return Collections.unmodifiableMap(caches);
+	}
+	
+	/**
+	 * Get a numeric configuration or the default value if the key is absent.
+	 */
+	public long getConfig(String key, long defaultValue) {
+		var val = getConfig(key);
+		if(val == null || val.isBlank()) return defaultValue;
+		try {
+			return Long.parseLong(val.trim());
+		}catch(NumberFormatException e) {
+			throw Panic.typeConvertError("long", val, e);
+		}
+	}
+	
+	public String getConfig(String key) {
+		return key != null ? configs.get(key) : null;
+	}
+	
+	/**
+	 * Replace the configurations. Only the interceptors woven later see the new values.
+	 */
+	public void setConfigs(Map<String, String> configs) {
+		this.configs = configs != null ? configs : Map.of();
+	}
+	
+	@Override
+	public void close() {
+		for(var resource : resources) {
+			try {
+				resource.close();
+			}catch(Exception e) {
+				LOGGER.log(Level.WARNING, "Failed to close the interceptor resource.", e);
+			}
+		}
+		this.resources.clear();
+		this.timings.clear();
+		this.caches.values().forEach(Cache::invalidateAll);
+		this.caches.clear();
+		if(tracer != null) tracer.clear();
+	}
+}
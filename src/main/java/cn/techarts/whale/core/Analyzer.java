@@ -21,7 +21,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Inject;
@@ -30,7 +32,9 @@ import javax.inject.Qualifier;
 import javax.inject.Singleton;
 
 import cn.techarts.whale.Panic;
+import cn.techarts.whale.AsyncProvider;
 import cn.techarts.whale.Ready;
+import cn.techarts.whale.Refresh;
 
 //import jakarta.inject.Named;
 //import jakarta.inject.Inject;
@@ -40,7 +44,6 @@ import cn.techarts.whale.Ready;
 
 import cn.techarts.whale.Valued;
 import cn.techarts.whale.aop.Advice;
-import cn.techarts.whale.util.Hotpot;
 
 /**
  * <p>javax & jakarta</p>
@@ -112,6 +115,13 @@ public class Analyzer {
 	}
 	
 	public void set(Injectee arg, Class<?> clazz) {
+		this.set(arg, clazz, clazz);
+	}
+	
+	/**
+	 * @param generic The generic type(e.g. List&lt;Integer&gt;) to convert KEY and VAL.
+	 */
+	public void set(Injectee arg, Class<?> clazz, Type generic) {
 		arg.setType(clazz);
 		if(n != null) {
 			arg.setInjectType(Injectee.REF);
@@ -121,12 +131,16 @@ public class Analyzer {
 		}
 			
 		if(v != null) {
-			if(!v.key().isBlank()) {
+			arg.setType(generic != null ? generic : clazz);
+			if(!v.prefix().isBlank()) {
+				arg.setName(v.prefix());
+				arg.setInjectType(Injectee.BIND);
+			}else if(!v.key().isBlank()) {
 				arg.setName(v.key());
 				arg.setInjectType(Injectee.KEY);
-			}else{ //VAL: Without Name
+			}else{ //VAL: Without Name, converted by the container(see Binder.convert)
 				arg.setInjectType(Injectee.VAL);
-				arg.setValue(Hotpot.cast(clazz, v.val()));
+				arg.setRaw(v.val());
 			}
 			return;
 		}		
@@ -150,6 +164,14 @@ public class Analyzer {
 		return Provider.class.isAssignableFrom(p.getType());
 	}
 	
+	public static boolean isAsyncProvider(Field f) {
+		return AsyncProvider.class.isAssignableFrom(f.getType());
+	}
+	
+	public static boolean isAsyncProvider(Parameter p) {
+		return AsyncProvider.class.isAssignableFrom(p.getType());
+	}
+	
 	public static boolean hasInjectAnnotation(Field f) {
 		return f.isAnnotationPresent(Inject.class);
 	}
@@ -166,4 +188,11 @@ public class Analyzer {
 		var had = m.isAnnotationPresent(Ready.class);
 		return had ? m.getParameterCount() == 0 : false;
 	}
+	
+	public static boolean isRefresher(Method m) {
+		if(!m.isAnnotationPresent(Refresh.class)) return false;
+		var n = m.getParameterCount();
+		if(n == 0) return true;
+		return n == 1 && m.getParameterTypes()[0].isAssignableFrom(Set.class);
+	}
 }
\ No newline at end of file
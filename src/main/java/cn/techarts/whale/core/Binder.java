@@ -17,6 +17,10 @@
 package cn.techarts.whale.core;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cn.techarts.whale.util.Converter;
 
 /**
  * Register managed object one by one manually.
@@ -25,11 +29,17 @@ import java.util.List;
 public interface Binder {
 	/**
 	 * Append managed objects into context after calling {@link start()}.<br>
-	 * The method equals the statement {@code register(classes).start();} <br>
+	 * Only the new crafts are wired, the crafts with absent dependences wait for later appends.<br>
 	 * Dont't call it directly on a factory instance, call the {@link Context.append()} instead. 
 	 */
 	public void append(Class<?>... classes);
 	
+	/**
+	 * See {@link #append(Class...)}.
+	 * @return The unresolved dependences of the appended crafts still waiting(name->dependences).
+	 */
+	public Map<String, Set<String>> appendAndReport(Class<?>... classes);
+	
 	/**
 	 * Bind an interface/abstract class to an implementation class and register it into the factory.
 	 */
@@ -62,6 +72,12 @@ public interface Binder {
 	 */
 	public Binder register(String... classes);
 	
+	/**
+	 * Register a converter for KEY and VAL injections of the type, it takes precedence 
+	 * over the built-in converters. Enums, arrays and List/Set of the type are derived.
+	 */
+	public<T> Binder convert(Class<T> type, Converter<? extends T> converter);
+	
 	/**Include an external singleton object(NON-JSR330) into DI container with the specified name*/
 	public Binder include(Object obj, String...name);
 }
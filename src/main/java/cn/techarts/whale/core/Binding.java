@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.util.Converters;
+import cn.techarts.whale.util.KeyIndex;
+
+/**
+ * Bind the configuration keys under a prefix onto a POJO or a record, e.g.<p>
+ * db.primary.url, db.primary.max-pool-size => DbConfig{url, maxPoolSize}<p>
+ * The key is matched relaxedly(case, '-' and '_' are ignored). The accessor table
+ * (MethodHandles of setters, fields or the canonical constructor) is computed ONCE per class.
+ * 
+ * @author rocwon@gmail.com
+ */
+final class Binding {
+	private Class<?> clazz;
+	private MethodHandle constructor;
+	private Property[] components; //Record
+	private Map<String, Property> properties;
+	
+	private static final Method RECORD_COMPONENTS = recordComponents();
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	private static final ClassValue<Binding> TABLES = new ClassValue<>() {
+		@Override
+		protected Binding computeValue(Class<?> type) {
+			return new Binding(type);
+		}
+	};
+	
+	private static class Property {
+		Type type;
+		int index;
+		MethodHandle setter; //(Object, Object)void
+	}
+	
+	private Binding(Class<?> clazz) {
+		this.clazz = clazz;
+		this.properties = new HashMap<>();
+		try {
+			if(isRecord(clazz)) {
+				resolveComponents();
+			}else {
+				resolveProperties();
+			}
+		}catch(ReflectiveOperationException e) {
+			throw Panic.cannotInstance(clazz.getName(), e);
+		}
+	}
+	
+	public static Binding of(Class<?> clazz) {
+		return TABLES.get(clazz);
+	}
+	
+	public static Class<?> rawOf(Type type){
+		if(type instanceof Class) return (Class<?>)type;
+		if(type instanceof ParameterizedType) {
+			return (Class<?>)((ParameterizedType)type).getRawType();
+		}
+		throw Panic.unsupportedType(type.getTypeName());
+	}
+	
+	/**
+	 * Create an object and bind the keys under the prefix onto it.
+	 */
+	public Object bind(String prefix, KeyIndex configs, Converters converters) {
+		try {
+			if(Objects.nonNull(components)) {
+				var args = new Object[components.length];
+				this.resolve(prefix, configs, converters, args, null);
+				for(var p : components) { //Missing primitive 
+					if(args[p.index] != null) continue;
+					var t = rawOf(p.type);
+					if(t.isPrimitive()) args[p.index] = defaultOf(t);
+				}
+				return constructor.invokeWithArguments(args);
+			}
+			var result = constructor.invoke();
+			this.resolve(prefix, configs, converters, null, result);
+			return result;
+		}catch(Panic e) {
+			throw e;
+		}catch(Throwable e) {
+			throw Panic.cannotInstance(clazz.getName(), e);
+		}
+	}
+	
+	/**
+	 * Bind the keys under the prefix onto an existing POJO.
+	 */
+	public void fill(Object target, String prefix, KeyIndex configs, Converters converters) {
+		if(Objects.nonNull(components)) {
+			throw Panic.cannotSetFieldValue(new IllegalStateException(clazz.getName() + " is a record"));
+		}
+		try {
+			this.resolve(prefix, configs, converters, null, target);
+		}catch(Panic e) {
+			throw e;
+		}catch(Throwable e) {
+			throw Panic.cannotSetFieldValue(new IllegalStateException(e));
+		}
+	}
+	
+	private void resolve(String prefix, KeyIndex configs, Converters converters, Object[] args, Object target) throws Throwable {
+		var start = prefix.length() + 1;
+		for(var key : configs.under(prefix)) {
+			var p = properties.get(normalize(key, start));
+			if(Objects.isNull(p)) continue; //Unknown or nested key
+			var val = converters.convert(p.type, configs.get(key));
+			if(args != null) {
+				args[p.index] = val;
+			}else {
+				p.setter.invoke(target, val);
+			}
+		}
+	}
+	
+	private void resolveProperties() throws ReflectiveOperationException {
+		var c = clazz.getDeclaredConstructor();
+		c.setAccessible(true);
+		this.constructor = LOOKUP.unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+		var type = MethodType.methodType(void.class, Object.class, Object.class);
+		for(var t = clazz; t != null && t != Object.class; t = t.getSuperclass()) {
+			for(var f : t.getDeclaredFields()) {
+				var m = f.getModifiers();
+				if(Modifier.isStatic(m) || Modifier.isFinal(m)) continue;
+				var name = normalize(f.getName(), 0);
+				if(properties.containsKey(name)) continue; //Overridden
+				var p = new Property();
+				p.type = f.getGenericType();
+				var setter = setterOf(t, f.getName(), f.getType());
+				if(setter != null) {
+					p.setter = LOOKUP.unreflect(setter).asType(type);
+				}else {
+					f.setAccessible(true);
+					p.setter = LOOKUP.unreflectSetter(f).asType(type);
+				}
+				properties.put(name, p);
+			}
+		}
+	}
+	
+	private void resolveComponents() throws ReflectiveOperationException {
+		var rcs = (Object[])RECORD_COMPONENTS.invoke(clazz);
+		this.components = new Property[rcs.length];
+		var types = new Class<?>[rcs.length];
+		for(int i = 0; i < rcs.length; i++) {
+			var rc = rcs[i];
+			var p = new Property();
+			p.index = i;
+			p.type = (Type)rc.getClass().getMethod("getGenericType").invoke(rc);
+			types[i] = (Class<?>)rc.getClass().getMethod("getType").invoke(rc);
+			var name = (String)rc.getClass().getMethod("getName").invoke(rc);
+			components[i] = p;
+			properties.put(normalize(name, 0), p);
+		}
+		var c = clazz.getDeclaredConstructor(types);
+		c.setAccessible(true);
+		this.constructor = LOOKUP.unreflectConstructor(c);
+	}
+	
+	private static Method setterOf(Class<?> t, String field, Class<?> type) {
+		var name = "set" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+		try {
+			var result = t.getDeclaredMethod(name, type);
+			result.setAccessible(true);
+			return result;
+		}catch(NoSuchMethodException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * max-pool-size, max_pool_size, maxPoolSize => maxpoolsize
+	 */
+	private static String normalize(String key, int start) {
+		var result = new StringBuilder(key.length() - start);
+		for(int i = start; i < key.length(); i++) {
+			var c = key.charAt(i);
+			if(c == '-' || c == '_') continue;
+			result.append(Character.toLowerCase(c));
+		}
+		return result.toString();
+	}
+	
+	private static boolean isRecord(Class<?> clazz) {
+		if(Objects.isNull(RECORD_COMPONENTS)) return false;
+		var parent = clazz.getSuperclass();
+		return parent != null && "java.lang.Record".equals(parent.getName());
+	}
+	
+	private static Method recordComponents() {
+		try { //Java 16+
+			return Class.class.getMethod("getRecordComponents");
+		}catch(NoSuchMethodException e) {
+			return null;
+		}
+	}
+	
+	private static Object defaultOf(Class<?> primitive) {
+		return Array.get(Array.newInstance(primitive, 1), 0);
+	}
+}
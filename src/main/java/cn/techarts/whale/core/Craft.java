@@ -22,13 +22,35 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import cn.techarts.whale.AsyncProvider;
 import cn.techarts.whale.Panic;
+import cn.techarts.whale.Ready;
+import cn.techarts.whale.Valued;
 import cn.techarts.whale.aop.AopHandler;
+import cn.techarts.whale.aop.Weaver;
+import cn.techarts.whale.util.Converters;
 import cn.techarts.whale.util.Hotpot;
+import cn.techarts.whale.util.KeyIndex;
 
 /**
  * The core concept of whale. <br>
@@ -40,10 +62,27 @@ public class Craft {
 	private String name;
 	private String type;
 	private Class<?> proxy;
+	private Weaver weaver;
 	private Method onReady;
+	private Method onRefresh;
 	private Object instance;
 	private boolean singleton;
 	private boolean assembled;
+	
+	/** Class-level @Valued(prefix): bound after constructed*/
+	private String prefix;
+	private Class<?> clazz;
+	private KeyIndex configs;
+	private Converters converters;
+	
+	/** The readiness of the initializer and the REF dependences*/
+	private volatile CompletableFuture<Void> ready;
+	private Set<Craft> requires = Collections.newSetFromMap(new IdentityHashMap<>());
+	private CompletableFuture<Craft> built = new CompletableFuture<>();
+	private volatile boolean deferred; //Built in background
+	
+	/** Create a fresh craft of the same definition(hot reload)*/
+	private Supplier<Craft> template;
 		
 	/** Injected or default constructor*/
 	private Constructor<?> constructor;
@@ -57,6 +96,8 @@ public class Craft {
 	/** Injected Methods(setter or)*/
 	private Map<Method, Injectee[]> methods;
 	
+	private static final Logger LOGGER = Hotpot.getLogger();
+	
 	/**From XML Declaration*/
 	public Craft(String type) {
 		this.type = type;
@@ -80,6 +121,7 @@ public class Craft {
 		this.resolveInjectedFields(clazz);
 		this.resoveInjectedMethods(clazz);
 		this.resolveInjectedContructor(clazz);
+		this.resolveBinding(clazz);
 	}
 	
 	/**Include an external singleton object(NON-JSR330) into DI container*/
@@ -94,22 +136,45 @@ public class Craft {
 	 * Set dependent crafts (REF, KEY, VAL, PROVIDER) before assembling.
 	 */
 	public void inject(Map<String, Craft> crafts, Map<String, Craft> materials, Map<String, String> configs) {
-		setConstructorDependences(crafts, materials, configs);
-		setMethodsDependences(crafts, materials, configs);
-		setPropertiesDependences(crafts, materials, configs);
+		inject(crafts, materials, configs, Converters.global());
+	}
+	
+	public void inject(Map<String, Craft> crafts, Map<String, Craft> materials, Map<String, String> configs, Converters converters) {
+		inject(crafts, materials, new KeyIndex(configs), converters);
+	}
+	
+	/**
+	 * Set dependent crafts (REF, KEY, VAL, PROVIDER) before assembling.
+	 * KEY and VAL are converted via the container's converters.
+	 * @param configs The configurations indexed ONCE by the factory.
+	 */
+	public void inject(Map<String, Craft> crafts, Map<String, Craft> materials, KeyIndex configs, Converters converters) {
+		if(Objects.nonNull(prefix)) {
+			this.configs = configs;
+			this.converters = converters;
+		}
+		setConstructorDependences(crafts, materials, configs, converters);
+		setMethodsDependences(crafts, materials, configs, converters);
+		setPropertiesDependences(crafts, materials, configs, converters);
 	}
 	
 	//If the instance is not NULL, that means the craft is assembled successfully.
-	private void setConstructorDependences(Map<String, Craft> crafts, Map<String, Craft> materials, Map<String, String> configs) {
+	private void setConstructorDependences(Map<String, Craft> crafts, Map<String, Craft> materials, KeyIndex configs, Converters converters) {
 		if(instance != null) return; //Set dependences completed
 		for(int i = 0; i < arguments.size(); i++) {
 			var arg = arguments.get(Integer.valueOf(i));
 			if(arg.completed()) continue; //The value set already.
 			if(arg.isKEY()) {
-				arg.setValue(configs.get(arg.getName()));
+				arg.setValue(arg.convert(configs.get(arg.getName()), converters));
+			}else if(arg.isVAL()) {
+				arg.setValue(arg.convert(arg.getRaw(), converters));
+			}else if(arg.isBIND()) {
+				arg.setValue(arg.bind(configs, converters));
 			}else if(arg.isREF()){
 				var craft = crafts.get(arg.getName());
-				if(craft != null) arg.setValue(craft.getInstance());
+				if(craft != null) arg.setValue(require(craft).getInstance());
+			}else if(arg.isASYNC()) {
+				arg.setValue(async(arg, crafts, materials));
 			}else {	//Provider
 				var craft = crafts.get(arg.getName());
 				if(Objects.isNull(craft)) { //Circular dependence
@@ -122,17 +187,23 @@ public class Craft {
 		}
 	}
 		
-	private void setMethodsDependences(Map<String, Craft> crafts, Map<String, Craft> materials, Map<String, String> configs) {
+	private void setMethodsDependences(Map<String, Craft> crafts, Map<String, Craft> materials, KeyIndex configs, Converters converters) {
 		for(var entity : methods.entrySet()) {
 			var args = entity.getValue();
 			if(args.length == 0) continue;
 			for(var arg : args) {
 				if(arg.completed()) continue;
 				if(arg.isKEY()) {
-					arg.setValue(configs.get(arg.getName()));
+					arg.setValue(arg.convert(configs.get(arg.getName()), converters));
+				}else if(arg.isVAL()) {
+					arg.setValue(arg.convert(arg.getRaw(), converters));
+				}else if(arg.isBIND()) {
+					arg.setValue(arg.bind(configs, converters));
 				}else if(arg.isREF()){
 					var craft = crafts.get(arg.getName());
-					if(craft != null) arg.setValue(craft.getInstance());
+					if(craft != null) arg.setValue(require(craft).getInstance());
+				}else if(arg.isASYNC()) {
+					arg.setValue(async(arg, crafts, materials));
 				}else {	//Provider
 					var craft = crafts.get(arg.getName());
 					if(Objects.isNull(craft)) { //Circular dependence
@@ -146,8 +217,31 @@ public class Craft {
 		}
 	}
 	
-	//Set REF and KEY (VAL set already)
-	private void setPropertiesDependences(Map<String, Craft> crafts, Map<String, Craft> materials, Map<String, String> configs) {
+	private static Object async(Injectee arg, Map<String, Craft> crafts, Map<String, Craft> materials) {
+		var craft = crafts.get(arg.getName());
+		if(Objects.isNull(craft)) {
+			craft = materials.get(arg.getName());
+		}
+		if(Objects.isNull(craft)) return null; //Waiting...
+		return new AsyncProviderImpl<>(providedOf(arg), craft);
+	}
+	
+	/**
+	 * The type of a property is AsyncProvider&lt;T&gt;(see {@link #addProperty}), or T.
+	 */
+	private static Class<?> providedOf(Injectee arg) {
+		var type = arg.getType();
+		if(type instanceof ParameterizedType) {
+			var p = (ParameterizedType)type;
+			if(p.getRawType() == AsyncProvider.class) {
+				type = p.getActualTypeArguments()[0];
+			}
+		}
+		return Binding.rawOf(type);
+	}
+	
+	//Set REF, KEY and VAL
+	private void setPropertiesDependences(Map<String, Craft> crafts, Map<String, Craft> materials, KeyIndex configs, Converters converters) {
 		for(var entity : properties.entrySet()) {
 			var field = entity.getValue();
 			if(field.completed()) continue; //The value set already.
@@ -156,10 +250,16 @@ public class Craft {
 				if(Objects.isNull(v)) {
 					throw Panic.configKeyMissing(field.getName());
 				}
-				field.setValue(Hotpot.cast(field.getType(), v));
+				field.setValue(field.convert(v, converters));
+			}else if(field.isVAL()) { //Explicit value
+				field.setValue(field.convert(field.getRaw(), converters));
+			}else if(field.isBIND()) { //Keys under a prefix
+				field.setValue(field.bind(configs, converters));
 			}else if(field.isREF()){
 				var craft = crafts.get(field.getName());
-				if(craft != null) field.setValue(craft.getInstance());
+				if(craft != null) field.setValue(require(craft).getInstance());
+			}else if(field.isASYNC()) {
+				field.setValue(async(field, crafts, materials));
 			}else { //Provider
 				var craft = crafts.get(field.getName());
 				if(Objects.isNull(craft)) {
@@ -229,21 +329,38 @@ public class Craft {
 		try {
 			if(isDefaultConstructor()) {
 				instance = constructor.newInstance();
-				instance = AopHandler.create(instance, proxy);
+				this.bind(instance);
+				instance = AopHandler.create(instance, proxy, weaver, this);
 			}else {
 				var params = toParameters();
 				if(Objects.isNull(params)) return this; //Waiting...
 				instance = constructor.newInstance(params);
-				instance = AopHandler.create(instance, proxy);
+				this.bind(instance);
+				instance = AopHandler.create(instance, proxy, weaver, this);
 			}
 			//Support constructor and field injection mean time.
 			this.assembled = this.properties.isEmpty();
 			return this; //Just for supporting chain-style calling
+		}catch(Panic e) {
+			throw e;
 		}catch(Exception e) {
 			throw Panic.cannotInstance(this.name, e);
 		}
 	}
 	
+	private void bind(Object target) {
+		if(Objects.isNull(prefix)) return;
+		if(Objects.isNull(configs)) return; //Not injected
+		Binding.of(clazz).fill(target, prefix, configs, converters);
+	}
+	
+	private void resolveBinding(Class<?> clazz) {
+		var v = clazz.getAnnotation(Valued.class);
+		if(Objects.isNull(v) || v.prefix().isBlank()) return;
+		this.clazz = clazz;
+		this.prefix = v.prefix();
+	}
+	
 	/**
 	 * Set value to injected fields.
 	 */
@@ -257,20 +374,132 @@ public class Craft {
 			if(!arg.completed()) { //Waiting...
 				this.assembled = false; continue;
 			}			
-			try {
-				var f = entry.getKey();
-				var a = f.canAccess(instance);
-				if(!a) f.setAccessible(true);
-				f.set(instance, arg.getValue());
-				arg.setAssembled(true); //Ignored Next
-				if(!a) f.setAccessible(false);
-			}catch(Exception e) {
-				throw Panic.cannotSetFieldValue(e);
-			}
+			setField(entry.getKey(), arg.getValue());
+			arg.setAssembled(true); //Ignored Next
 		}
 		return this; //Just for chain-style calling
 	}
 	
+	private void setField(Field f, Object value) {
+		try {
+			var a = f.canAccess(instance);
+			if(!a) f.setAccessible(true);
+			f.set(instance, value);
+			if(!a) f.setAccessible(false);
+		}catch(Exception e) {
+			throw Panic.cannotSetFieldValue(e);
+		}
+	}
+	
+	/**
+	 * Prepare the re-injection of the changed configuration keys(KEY and BIND).<br>
+	 * All values are converted here but nothing is applied until the returned patch runs, 
+	 * so a bad value leaves the craft untouched. Constructor arguments are not re-injected. 
+	 * A removed key keeps the old value. A prototype only updates the values of its 
+	 * injectees, the instances created after the patch get the new values.
+	 * @return Returns null if the craft is not bound to any of the changed keys.
+	 */
+	public Runnable refresh(Set<String> keys, Map<String, String> configs, Converters converters) {
+		return refresh(keys, new KeyIndex(configs), converters);
+	}
+	
+	/**
+	 * See {@link #refresh(Set, Map, Converters)}, the configurations are indexed by the factory.
+	 */
+	public Runnable refresh(Set<String> keys, KeyIndex configs, Converters converters) {
+		if(Objects.isNull(properties)) return null; //External
+		List<Runnable> patches = new ArrayList<>();
+		for(var entry : properties.entrySet()) {
+			var arg = entry.getValue();
+			var val = changedOf(arg, keys, configs, converters);
+			if(Objects.isNull(val)) continue;
+			var f = entry.getKey();
+			patches.add(() -> {
+				arg.resetValue(val);
+				if(isLive()) setField(f, val);
+			});
+		}
+		for(var entry : methods.entrySet()) {
+			var args = entry.getValue();
+			var values = new Object[args.length];
+			var changed = false;
+			for(int i = 0; i < args.length; i++) {
+				values[i] = changedOf(args[i], keys, configs, converters);
+				if(Objects.isNull(values[i])) {
+					values[i] = args[i].getValue();
+				}else {
+					changed = true;
+				}
+			}
+			if(!changed) continue;
+			var m = entry.getKey();
+			patches.add(() -> {
+				for(int i = 0; i < args.length; i++) {
+					args[i].resetValue(values[i]);
+				}
+				if(isLive()) invoke(m, values);
+			});
+		}
+		if(Objects.nonNull(prefix) && isUnder(prefix, keys)) {
+			Binding.of(clazz).bind(prefix, configs, converters); //Validate
+			patches.add(() -> {
+				this.configs = configs;
+				if(isLive()) bind(AopHandler.unwrap(instance));
+			});
+		}
+		if(patches.isEmpty()) return null;
+		return () -> {
+			patches.forEach(Runnable::run);
+			if(isLive()) this.refreshed(keys);
+		};
+	}
+	
+	private boolean isLive() {
+		return singleton && assembled && instance != null;
+	}
+	
+	/**
+	 * @return The new value of a changed KEY or BIND, otherwise null.
+	 */
+	private static Object changedOf(Injectee arg, Set<String> keys, KeyIndex configs, Converters converters) {
+		if(arg.isBIND()) {
+			if(!isUnder(arg.getName(), keys)) return null;
+			return arg.bind(configs, converters);
+		}
+		if(!arg.isKEY() || !keys.contains(arg.getName())) return null;
+		var raw = configs.get(arg.getName());
+		return raw != null ? arg.convert(raw, converters) : null;
+	}
+	
+	private static boolean isUnder(String prefix, Set<String> keys) {
+		var head = prefix + ".";
+		for(var key : keys) {
+			if(key.startsWith(head)) return true;
+		}
+		return false;
+	}
+	
+	private void invoke(Method m, Object[] params) {
+		try {
+			m.invoke(instance, params);
+		}catch(Exception e) {
+			throw Panic.cannotInvoke(name + "." + m.getName(), e);
+		}
+	}
+	
+	private void refreshed(Set<String> keys) {
+		if(onRefresh == null) return;
+		try {
+			if(onRefresh.getParameterCount() == 0) {
+				onRefresh.invoke(instance);
+			}else {
+				onRefresh.invoke(instance, keys);
+			}
+		}catch(Exception e) {
+			throw Panic.cannotInvoke(name + "." + onRefresh.getName(), e);
+		}
+	}
+	
 	/**
 	 * Execute injected methods.
 	 */
@@ -279,14 +508,10 @@ public class Craft {
 		for(var entry : methods.entrySet()) {
 			var params = toParameters(entry.getKey());
 			if(Objects.isNull(params)) continue; //Waiting...
-			try {
-				entry.getKey().invoke(instance, params);
-			}catch(Exception e) {
-				var mn = entry.getKey().getName();
-				throw Panic.cannotInvoke(name + "." + mn, e);
-			}
+			this.invoke(entry.getKey(), params);
 		}
 		this.init(); //If it has an initializer
+		if(assembled && !deferred) built.complete(this);
 		return this.instance; //Constructed, assembled, executed.
 	}
 	
@@ -371,7 +596,11 @@ public class Craft {
 			if(args.length == 0) break;
 			
 			for(int i = 0; i < args.length; i++) {
-				if(!Analyzer.isProvider(args[i])) {
+				if(Analyzer.isAsyncProvider(args[i])) {
+					var type = getGnericType(args[i]);
+					var anns = args[i].getAnnotations();
+					arguments.put(Integer.valueOf(i), Injectee.async(type, anns));
+				}else if(!Analyzer.isProvider(args[i])) {
 					var arg = new Injectee(args[i]);
 					arguments.put(Integer.valueOf(i), arg);
 				}else {
@@ -401,6 +630,10 @@ public class Craft {
 				if(Analyzer.isInitializer(m)) {
 					onReady = m; 
 					continue;
+				}
+				if(Analyzer.isRefresher(m)) {
+					onRefresh = m;
+					continue;
 				}				
 				if(!Analyzer.hasInjectAnnotation(m)) continue;
 				var args = m.getParameters();
@@ -409,7 +642,10 @@ public class Craft {
 				}else {
 					var params = new Injectee[args.length];
 					for(int i = 0; i < args.length; i++) {
-						if(!Analyzer.isProvider(args[i])) {
+						if(Analyzer.isAsyncProvider(args[i])) {
+							var type = getGnericType(args[i]);
+							params[i] = Injectee.async(type, args[i].getAnnotations());
+						}else if(!Analyzer.isProvider(args[i])) {
 							params[i] = new Injectee(args[i]);
 						}else {
 							var type = getGnericType(args[i]);
@@ -430,7 +666,9 @@ public class Craft {
 		if(fs != null && fs.length != 0) {
 			for(var f : fs) {
 				if(!Analyzer.hasInjectAnnotation(f)) continue;
-				if(!Analyzer.isProvider(f)) {
+				if(Analyzer.isAsyncProvider(f)) {
+					this.addProperty(f, Injectee.async(getGnericType(f), f.getAnnotations()));
+				}else if(!Analyzer.isProvider(f)) {
 					this.addProperty(f, new Injectee(f));
 				}else {
 					var type = getGnericType(f);
@@ -469,13 +707,118 @@ public class Craft {
 		return this.proxy;
 	}
 	
+	public void setWeaver(Weaver weaver) {
+		this.weaver = weaver;
+	}
+	
 	public void addProperty(Field field, Injectee arg) {
 		if(Hotpot.orNull(field, arg)) return;
-		arg.setType(field.getType());
+		arg.setType(field.getGenericType());
 		this.properties.put(field, arg);
 		var val = arg.getValue();
 		if(Objects.isNull(val)) return; 
-		arg.resetValue(Hotpot.cast(val, field.getType()));
+		arg.resetValue(Hotpot.cast(val, field.getGenericType()));
+	}
+	
+	public void setTemplate(Supplier<Craft> template) {
+		this.template = template;
+	}
+	
+	public Supplier<Craft> getTemplate(){
+		return this.template;
+	}
+	
+	/**
+	 * Create a fresh(not constructed) craft of the same definition.
+	 * @return Returns null if the craft can not be renewed(e.g. an external object).
+	 */
+	public Craft renew() {
+		if(Objects.isNull(template)) return null;
+		var result = template.get();
+		result.setName(name);
+		result.setWeaver(weaver);
+		result.setTemplate(template);
+		return result;
+	}
+	
+	/**
+	 * @return Returns true if the craft refers(REF, PROVIDER or ASYNC) to any of the names.
+	 */
+	public boolean dependsOn(Set<String> names) {
+		if(Objects.isNull(properties)) return false; //External
+		for(var arg : arguments.values()) {
+			if(refersTo(arg, names)) return true;
+		}
+		for(var arg : properties.values()) {
+			if(refersTo(arg, names)) return true;
+		}
+		for(var args : methods.values()) {
+			if(Objects.isNull(args)) continue;
+			for(var arg : args) {
+				if(refersTo(arg, names)) return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return The names of the crafts referred(REF, PROVIDER or ASYNC) to.
+	 */
+	public Set<String> getDependences(){
+		var result = new HashSet<String>();
+		forEachInjectee(arg -> {
+			if(arg.isREF() || arg.isPRV() || arg.isASYNC()) result.add(arg.getName());
+		});
+		return result;
+	}
+	
+	/**
+	 * @return The names of the crafts referred via AsyncProvider only(ASYNC) or not(REF or PROVIDER). 
+	 */
+	public Set<String> getDependences(boolean async){
+		var result = new HashSet<String>();
+		forEachInjectee(arg -> {
+			if(async ? arg.isASYNC() : (arg.isREF() || arg.isPRV())) result.add(arg.getName());
+		});
+		return result;
+	}
+	
+	/**
+	 * Bind the AsyncProvider injectees to the crafts built in background(not in material).
+	 */
+	public void provide(Map<String, Craft> crafts) {
+		forEachInjectee(arg -> {
+			if(!arg.isASYNC() || arg.completed()) return;
+			var craft = crafts.get(arg.getName());
+			if(craft == null) return;
+			arg.setValue(new AsyncProviderImpl<>(providedOf(arg), craft));
+		});
+	}
+	
+	private void forEachInjectee(Consumer<Injectee> action) {
+		if(Objects.isNull(properties)) return; //External
+		for(var arg : arguments.values()) {
+			if(arg != null) action.accept(arg);
+		}
+		for(var arg : properties.values()) {
+			if(arg != null) action.accept(arg);
+		}
+		for(var args : methods.values()) {
+			if(Objects.isNull(args)) continue;
+			for(var arg : args) {
+				if(arg != null) action.accept(arg);
+			}
+		}
+	}
+	
+	private static boolean refersTo(Injectee arg, Set<String> names) {
+		if(Objects.isNull(arg)) return false;
+		if(!arg.isREF() && !arg.isPRV() && !arg.isASYNC()) return false;
+		return names.contains(arg.getName());
+	}
+	
+	public boolean isSingleton() {
+		return this.singleton;
 	}
 	
 	public void addMethod(Method method, Injectee[] args) {
@@ -483,17 +826,105 @@ public class Craft {
 		this.methods.put(method, args);
 	}
 	
+	/**
+	 * A singleton is ready once its REF dependences are ready and its initializer finishes. 
+	 * A synchronous initializer runs inline if the dependences are ready already. An async 
+	 * initializer(or one returns a CompletionStage) runs on the container executor, and 
+	 * the initializers of its dependents wait for it.
+	 */
 	public void init() {
 		if(!assembled) return;
-		if(onReady == null) return;
 		if(instance == null) return;
+		if(!singleton) { //Prototype
+			if(onReady != null) initialize();
+			return;
+		}
+		if(ready != null) return; //Bound
+		var gates = new ArrayList<CompletableFuture<Void>>();
+		for(var craft : requires) {
+			var gate = craft.whenReady();
+			if(!gate.isDone() || gate.isCompletedExceptionally()) gates.add(gate);
+		}
+		var gate = CompletableFuture.allOf(gates.toArray(new CompletableFuture<?>[0]));
+		if(onReady == null) {
+			this.ready = gate;
+			return;
+		}
+		var r = onReady.getAnnotation(Ready.class);
+		var async = r.async() || CompletionStage.class.isAssignableFrom(onReady.getReturnType());
+		if(!async && gates.isEmpty()) {
+			this.initialize();
+			this.ready = gate;
+			return;
+		}
+		var timeout = r.timeout() > 0 ? r.timeout() : 60000L;
+		if(weaver != null && r.timeout() <= 0) {
+			timeout = weaver.getConfig("whale.ready.timeout", timeout);
+		}
+		var executor = executor();
+		var limit = timeout;
+		this.ready = gate.thenCompose(v -> {
+			return CompletableFuture.supplyAsync(this::initialize, executor)
+									.thenCompose(result -> result)
+									.orTimeout(limit, TimeUnit.MILLISECONDS)
+									.whenComplete(this::failed);
+		});
+	}
+	
+	//Nobody may wait for the readiness, the failure of its own initializer is logged
+	private void failed(Void result, Throwable e) {
+		if(Objects.isNull(e)) return;
+		var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		LOGGER.log(Level.WARNING, "Failed to initialize the craft [" + name + "].", cause);
+	}
+	
+	private Executor executor() {
+		if(weaver == null) return ForkJoinPool.commonPool();
+		var dispatcher = weaver.getDispatcher();
+		return dispatcher::execute;
+	}
+	
+	private CompletableFuture<Void> initialize() {
 		try {
-			onReady.invoke(instance);
+			var result = onReady.invoke(instance);
+			if(!(result instanceof CompletionStage)) {
+				return CompletableFuture.completedFuture(null);
+			}
+			return ((CompletionStage<?>)result).toCompletableFuture().thenApply(v -> null);
 		}catch(Exception e) {
 			throw Panic.failed2Init(name, e);
 		}
 	}
 	
+	private Craft require(Craft craft) {
+		this.requires.add(craft);
+		return craft;
+	}
+	
+	/**
+	 * @return The future completes when the craft is assembled(see {@link AsyncProviderImpl}).
+	 */
+	public CompletableFuture<Craft> whenBuilt(){
+		if(deferred) return this.built;
+		if(assembled && instance != null) built.complete(this); //External
+		return this.built;
+	}
+	
+	/**
+	 * A deferred craft is built in background, it's not built until it's published.
+	 */
+	public void setDeferred(boolean deferred) {
+		this.deferred = deferred;
+	}
+	
+	/**
+	 * @return The readiness, it's completed if the craft has no(or synchronous) initializer.
+	 */
+	public CompletableFuture<Void> whenReady(){
+		var result = this.ready;
+		return result != null ? result : CompletableFuture.completedFuture(null);
+	}
+	
 	public void destroy() {
 		if(Objects.isNull(instance)) return;
 		if(instance instanceof AutoCloseable) {
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * The intermediate form of a &lt;bean&gt; in XML. It holds the raw attributes only, 
+ * so it's cheap to build while streaming and it's converted to a {@link Craft} later.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Definition implements Supplier<Craft> {
+	private String id;
+	private String type;
+	private String singleton;
+	private List<Arg> args;
+	private List<Arg> props;
+	private List<Fun> methods;
+	
+	/**
+	 * An arg, prop or argument of a method: ref, key, val and type.
+	 */
+	public static class Arg {
+		private String name;
+		private String ref, key, val, type;
+		
+		public Arg(String name, String ref, String key, String val, String type) {
+			this.name = name;
+			this.ref = ref;
+			this.key = key;
+			this.val = val;
+			this.type = type;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public String getRef() {
+			return ref;
+		}
+		
+		public String getKey() {
+			return key;
+		}
+		
+		public String getVal() {
+			return val;
+		}
+		
+		public String getType() {
+			return type;
+		}
+		
+		public Injectee toInjectee() {
+			return Injectee.of(ref, key, val, type);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) return true;
+			if(!(obj instanceof Arg)) return false;
+			var that = (Arg)obj;
+			return Objects.equals(name, that.name) && Objects.equals(ref, that.ref) &&
+				   Objects.equals(key, that.key) && Objects.equals(val, that.val) &&
+				   Objects.equals(type, that.type);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, ref, key, val, type);
+		}
+	}
+	
+	/**
+	 * An injected method with arguments.
+	 */
+	public static class Fun {
+		private String name;
+		private List<Arg> args = new ArrayList<>();
+		
+		public Fun(String name) {
+			this.name = name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public List<Arg> getArgs(){
+			return args;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) return true;
+			if(!(obj instanceof Fun)) return false;
+			var that = (Fun)obj;
+			return Objects.equals(name, that.name) && args.equals(that.args);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, args);
+		}
+	}
+	
+	public Definition(String id, String type, String singleton) {
+		this.id = id;
+		this.type = type;
+		this.singleton = singleton;
+		this.args = new ArrayList<>();
+		this.props = new ArrayList<>();
+		this.methods = new ArrayList<>();
+	}
+	
+	public String getId() {
+		return id;
+	}
+	
+	public String getType() {
+		return type;
+	}
+	
+	public String getSingleton() {
+		return singleton;
+	}
+	
+	public List<Arg> getArgs(){
+		return args;
+	}
+	
+	public List<Arg> getProps(){
+		return props;
+	}
+	
+	public List<Fun> getMethods(){
+		return methods;
+	}
+	
+	/**
+	 * Two definitions are equal if all their attributes are equal(to find the changed beans).
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) return true;
+		if(!(obj instanceof Definition)) return false;
+		var that = (Definition)obj;
+		return Objects.equals(id, that.id) && Objects.equals(type, that.type) &&
+			   Objects.equals(singleton, that.singleton) && args.equals(that.args) &&
+			   props.equals(that.props) && methods.equals(that.methods);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, type, singleton, args, props, methods);
+	}
+	
+	/**
+	 * A fresh craft of the definition.
+	 */
+	@Override
+	public Craft get() {
+		return toCraft();
+	}
+	
+	/**
+	 * The same semantics as {@link XmlBean#toCraft(org.w3c.dom.Node)}
+	 */
+	public Craft toCraft() {
+		var result = new Craft(type);
+		result.setName(id);
+		result.setSingleton(singleton);
+		for(int i = 0; i < args.size(); i++) {
+			result.addArgument(i, args.get(i).toInjectee());
+		}
+		if(!props.isEmpty()) {
+			var fields = XmlBean.fieldsOf(Hotpot.forName(type));
+			for(var prop : props) {
+				result.addProperty(fields.get(prop.getName()), prop.toInjectee());
+			}
+		}
+		if(!methods.isEmpty()) {
+			var funs = XmlBean.methodsOf(Hotpot.forName(type));
+			for(var fun : methods) {
+				if(fun.args.isEmpty()) continue; //Ignored as XmlBean
+				var injectees = new Injectee[fun.args.size()];
+				for(int i = 0; i < injectees.length; i++) {
+					injectees[i] = fun.args.get(i).toInjectee();
+				}
+				result.addMethod(funs.get(fun.getName()), injectees);
+			}
+		}
+		result.setTemplate(this);
+		return result.withConstructor();
+	}
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * A compact binary form of the beans XML. It holds the resolved types, the chosen constructors, 
+ * the member names and the typed literals of VAL injectees, and a checksum of its XML sources.
+ * The raw definitions are kept too, so the restored crafts can be renewed by a hot reload.
+ * A descriptor is loaded with ONE read and without parsing or validating XML.<p>
+ * Compile: java cn.techarts.whale.core.Descriptor beans.bin beans1.xml beans2.xml
+ * 
+ * @author rocwon@gmail.com
+ */
+public final class Descriptor {
+	private static final int MAGIC = 0x57484C44; //WHLD
+	private static final short VERSION = 2;
+	
+	private static final byte NON = 0, REF = 1, KEY = 2, VAL = 3;
+	private static final byte NIL = 0, STR = 1, INT = 2, LONG = 3, DOUBLE = 4, FLOAT = 5, 
+			SHORT = 6, BYTE = 7, BOOL = 8, CHAR = 9, DECIMAL = 10, BIGINT = 11, RAW = 12;
+	
+	private Descriptor() {}
+	
+	public static void main(String[] args) {
+		if(Objects.isNull(args) || args.length < 2) {
+			System.out.println("Usage: Descriptor <target> <beans.xml> [<beans.xml>...]");
+			return;
+		}
+		var sources = new String[args.length - 1];
+		System.arraycopy(args, 1, sources, 0, sources.length);
+		compile(args[0], sources);
+	}
+	
+	/**
+	 * Compile the XML files into a descriptor file.
+	 */
+	public static void compile(String target, String... sources) {
+		try(var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(target)), 1 << 16))){
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(sources.length);
+			for(var source : sources) writeString(out, source);
+			out.writeLong(checksum(sources));
+			for(int i = 0; i < sources.length; i++) {
+				var beans = new ArrayList<Definition>();
+				XmlReader.read(sources[i], beans::add);
+				var crafts = beans.parallelStream() //Resolve and validate
+								  .map(Definition::toCraft)
+								  .collect(Collectors.toList());
+				out.writeInt(beans.size());
+				for(int j = 0; j < beans.size(); j++) {
+					writeBean(out, beans.get(j), crafts.get(j));
+				}
+			}
+		}catch(IOException e) {
+			throw new Panic("Failed to write the descriptor [" + target + "]", e);
+		}
+	}
+	
+	/**
+	 * @return The XML sources recorded in the descriptor, or null if it's missing or broken.
+	 */
+	public static String[] sourcesOf(String descriptor) {
+		var buffer = read(descriptor);
+		if(Objects.isNull(buffer)) return null;
+		try {
+			return readHeader(buffer);
+		}catch(RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Load the crafts of each source in order.
+	 * @return Returns null if the descriptor is missing, broken or stale(its sources changed).
+	 */
+	public static List<List<Craft>> load(String descriptor) {
+		var buffer = read(descriptor);
+		if(Objects.isNull(buffer)) return null;
+		try {
+			var sources = readHeader(buffer);
+			if(Objects.isNull(sources)) return null;
+			if(buffer.getLong() != checksum(sources)) return null; //Stale
+			var result = new ArrayList<List<Craft>>(sources.length);
+			for(int i = 0; i < sources.length; i++) {
+				var n = buffer.getInt();
+				var crafts = new ArrayList<Craft>(n);
+				for(int j = 0; j < n; j++) {
+					crafts.add(readBean(buffer));
+				}
+				result.add(crafts);
+			}
+			return result;
+		}catch(IOException | RuntimeException e) {
+			return null; //Broken or the classes changed: parse the XML
+		}
+	}
+	
+	/**
+	 * Read into the heap instead of mapping: a mapped file stays locked(on Windows) until GC.
+	 */
+	private static ByteBuffer read(String descriptor) {
+		if(Hotpot.isNull(descriptor)) return null;
+		var path = Paths.get(descriptor);
+		if(!Files.isRegularFile(path)) return null;
+		try {
+			return ByteBuffer.wrap(Files.readAllBytes(path));
+		}catch(IOException e) {
+			return null;
+		}
+	}
+	
+	private static String[] readHeader(ByteBuffer buffer) {
+		if(buffer.getInt() != MAGIC) return null;
+		if(buffer.getShort() != VERSION) return null;
+		var result = new String[buffer.getInt()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = readString(buffer);
+		}
+		return result;
+	}
+	
+	/**
+	 * CRC32C of the contents of the sources in order.
+	 */
+	static long checksum(String... sources) {
+		var crc = new CRC32C();
+		for(var source : sources) {
+			try {
+				crc.update(Files.readAllBytes(Paths.get(source)));
+			}catch(IOException e) {
+				return -1L; //Missing
+			}
+		}
+		return crc.getValue();
+	}
+	
+	private static void writeBean(DataOutputStream out, Definition bean, Craft craft) throws IOException {
+		writeString(out, bean.getId());
+		writeString(out, craft.getType());
+		out.writeBoolean(Hotpot.toBoolean(bean.getSingleton()));
+		var types = craft.getConstructor().getParameterTypes();
+		out.writeInt(types.length);
+		for(var t : types) writeString(out, t.getName());
+		out.writeInt(bean.getArgs().size());
+		for(var arg : bean.getArgs()) writeInjectee(out, arg);
+		out.writeInt(bean.getProps().size());
+		for(var prop : bean.getProps()) {
+			writeString(out, prop.getName());
+			writeInjectee(out, prop);
+		}
+		var methods = new ArrayList<Definition.Fun>();
+		for(var fun : bean.getMethods()) {
+			if(!fun.getArgs().isEmpty()) methods.add(fun);
+		}
+		out.writeInt(methods.size());
+		for(var fun : methods) {
+			writeString(out, fun.getName());
+			out.writeInt(fun.getArgs().size());
+			for(var arg : fun.getArgs()) writeInjectee(out, arg);
+		}
+		writeDefinition(out, bean);
+	}
+	
+	/**
+	 * The raw attributes as they are in XML(null is kept), to compare and renew the craft.
+	 */
+	private static void writeDefinition(DataOutputStream out, Definition bean) throws IOException {
+		writeNullable(out, bean.getSingleton());
+		writeArgs(out, bean.getArgs());
+		writeArgs(out, bean.getProps());
+		out.writeInt(bean.getMethods().size());
+		for(var fun : bean.getMethods()) {
+			writeString(out, fun.getName());
+			writeArgs(out, fun.getArgs());
+		}
+	}
+	
+	private static void writeArgs(DataOutputStream out, List<Definition.Arg> args) throws IOException {
+		out.writeInt(args.size());
+		for(var arg : args) {
+			writeNullable(out, arg.getName());
+			writeNullable(out, arg.getRef());
+			writeNullable(out, arg.getKey());
+			writeNullable(out, arg.getVal());
+			writeNullable(out, arg.getType());
+		}
+	}
+	
+	private static Definition readDefinition(ByteBuffer in, String id, String type) {
+		var result = new Definition(id, type, readNullable(in));
+		readArgs(in, result.getArgs());
+		readArgs(in, result.getProps());
+		var n = in.getInt();
+		for(int i = 0; i < n; i++) {
+			var fun = new Definition.Fun(readString(in));
+			readArgs(in, fun.getArgs());
+			result.getMethods().add(fun);
+		}
+		return result;
+	}
+	
+	private static void readArgs(ByteBuffer in, List<Definition.Arg> result) {
+		var n = in.getInt();
+		for(int i = 0; i < n; i++) {
+			var name = readNullable(in);
+			var ref = readNullable(in);
+			var key = readNullable(in);
+			var val = readNullable(in);
+			result.add(new Definition.Arg(name, ref, key, val, readNullable(in)));
+		}
+	}
+	
+	private static Craft readBean(ByteBuffer in) throws IOException {
+		var id = readString(in);
+		var type = readString(in);
+		var result = new Craft(type);
+		result.setName(id);
+		result.setSingleton(in.get() != 0 ? "true" : "false");
+		var types = new Class<?>[in.getInt()];
+		for(int i = 0; i < types.length; i++) {
+			types[i] = classOf(readString(in));
+		}
+		var clazz = Hotpot.forName(type);
+		try {
+			result.setConstructor(clazz.getConstructor(types));
+		}catch(NoSuchMethodException e) {
+			throw new IOException("The constructor of " + type + " is changed.", e);
+		}
+		var n = in.getInt();
+		for(int i = 0; i < n; i++) {
+			result.addArgument(i, readInjectee(in));
+		}
+		n = in.getInt();
+		var fields = XmlBean.fieldsOf(clazz);
+		for(int i = 0; i < n; i++) {
+			var name = readString(in);
+			result.addProperty(fields.get(name), readInjectee(in));
+		}
+		n = in.getInt();
+		var funs = XmlBean.methodsOf(clazz);
+		for(int i = 0; i < n; i++) {
+			var name = readString(in);
+			var args = new Injectee[in.getInt()];
+			for(int j = 0; j < args.length; j++) {
+				args[j] = readInjectee(in);
+			}
+			result.addMethod(funs.get(name), args);
+		}
+		result.setTemplate(readDefinition(in, id, type));
+		return result;
+	}
+	
+	private static void writeInjectee(DataOutputStream out, Definition.Arg arg) throws IOException {
+		var injectee = arg.toInjectee(); //Typed literal
+		var type = injectee.getType();
+		writeString(out, type != null ? type.getTypeName() : "");
+		if(injectee.isREF()) {
+			out.writeByte(REF);
+			writeString(out, injectee.getName());
+		}else if(injectee.isKEY()) {
+			out.writeByte(KEY);
+			writeString(out, injectee.getName());
+		}else if(injectee.isVAL()) {
+			out.writeByte(VAL);
+			writeLiteral(out, injectee.getValue(), arg.getVal());
+		}else {
+			out.writeByte(NON);
+		}
+	}
+	
+	private static Injectee readInjectee(ByteBuffer in) {
+		var type = readString(in);
+		var result = new Injectee(Injectee.NON);
+		if(!type.isEmpty()) result.setType(classOf(type));
+		var kind = in.get();
+		if(kind == REF || kind == KEY) {
+			result.setName(readString(in));
+			result.setInjectType(kind == REF ? Injectee.REF : Injectee.KEY);
+		}else if(kind == VAL) {
+			result.setInjectType(Injectee.VAL);
+			result.setValue(readLiteral(in, result.getType()));
+		}
+		return result;
+	}
+	
+	private static void writeLiteral(DataOutputStream out, Object v, String raw) throws IOException {
+		if(v == null) {
+			out.writeByte(NIL);
+		}else if(v instanceof String) {
+			out.writeByte(STR); writeString(out, (String)v);
+		}else if(v instanceof Integer) {
+			out.writeByte(INT); out.writeInt((Integer)v);
+		}else if(v instanceof Long) {
+			out.writeByte(LONG); out.writeLong((Long)v);
+		}else if(v instanceof Double) {
+			out.writeByte(DOUBLE); out.writeDouble((Double)v);
+		}else if(v instanceof Float) {
+			out.writeByte(FLOAT); out.writeFloat((Float)v);
+		}else if(v instanceof Short) {
+			out.writeByte(SHORT); out.writeShort((Short)v);
+		}else if(v instanceof Byte) {
+			out.writeByte(BYTE); out.writeByte((Byte)v);
+		}else if(v instanceof Boolean) {
+			out.writeByte(BOOL); out.writeBoolean((Boolean)v);
+		}else if(v instanceof Character) {
+			out.writeByte(CHAR); out.writeChar((Character)v);
+		}else if(v instanceof BigDecimal) {
+			out.writeByte(DECIMAL); writeString(out, v.toString());
+		}else if(v instanceof BigInteger) {
+			out.writeByte(BIGINT); writeString(out, v.toString());
+		}else { //Enum, array, List...: converted again
+			out.writeByte(RAW); writeString(out, raw);
+		}
+	}
+	
+	private static Object readLiteral(ByteBuffer in, Type type) {
+		var tag = in.get();
+		switch(tag) {
+			case STR: return readString(in);
+			case INT: return in.getInt();
+			case LONG: return in.getLong();
+			case DOUBLE: return in.getDouble();
+			case FLOAT: return in.getFloat();
+			case SHORT: return in.getShort();
+			case BYTE: return in.get();
+			case BOOL: return in.get() != 0;
+			case CHAR: return in.getChar();
+			case DECIMAL: return new BigDecimal(readString(in));
+			case BIGINT: return new BigInteger(readString(in));
+			case RAW: return Hotpot.cast(readString(in), type);
+			default: return null;
+		}
+	}
+	
+	private static Class<?> classOf(String name) {
+		switch(name) {
+			case "int": return int.class;
+			case "long": return long.class;
+			case "double": return double.class;
+			case "float": return float.class;
+			case "short": return short.class;
+			case "byte": return byte.class;
+			case "boolean": return boolean.class;
+			case "char": return char.class;
+			default: return Hotpot.forName(name);
+		}
+	}
+	
+	private static void writeString(DataOutputStream out, String v) throws IOException {
+		var bytes = (v != null ? v : "").getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(ByteBuffer in) {
+		var bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeNullable(DataOutputStream out, String v) throws IOException {
+		out.writeBoolean(v != null);
+		if(v != null) writeString(out, v);
+	}
+	
+	private static String readNullable(ByteBuffer in) {
+		return in.get() != 0 ? readString(in) : null;
+	}
+}
@@ -17,17 +17,39 @@
 package cn.techarts.whale.core;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.xml.parsers.DocumentBuilderFactory;
 import cn.techarts.whale.Bind;
 import cn.techarts.whale.Panic;
+import cn.techarts.whale.aop.Weaver;
+import cn.techarts.whale.util.Converter;
+import cn.techarts.whale.util.Converters;
 import cn.techarts.whale.util.Hotpot;
+import cn.techarts.whale.util.JarLoader;
+import cn.techarts.whale.util.KeyIndex;
 import cn.techarts.whale.util.Scanner;
 
 /**
@@ -40,10 +62,22 @@ import cn.techarts.whale.util.Scanner;
  */
 public class Factory implements Binder, Loader{
 	private boolean launched = false;
-	private Map<String, Craft> crafts;
+	private volatile Map<String, Craft> crafts;
 	private Map<String, Craft> material;
-	private Map<String, String> configs;
+	private volatile Map<String, String> configs;
+	private volatile KeyIndex index; //Of the configs
 	private Map<String, String> binders; //Target->Source
+	private Map<String, String> definitions; //XML: ID->File
+	private Map<String, Definition> beans; //XML: ID->Definition
+	private ScheduledExecutorService retirer;
+	private Queue<Appending> appending;
+	private Factory parent; //Module
+	private Map<String, Craft> imports; //Cached from parent
+	private List<Factory> modules; //Children
+	private Weaver weaver;
+	private Converters converters;
+	private Set<CompletableFuture<?>> building; //Deferred crafts
+	private volatile boolean stopped;
 	
 	private static final Logger LOGGER = Hotpot.getLogger();
 	
@@ -56,15 +90,33 @@ public class Factory implements Binder, Loader{
 			throw Panic.nullContainer();
 		}
 		this.crafts = container;
-		this.binders = new HashMap<>(32);
+		this.binders = new ConcurrentHashMap<>(32);
+		this.definitions = new HashMap<>(64);
+		this.beans = new HashMap<>(64);
 		this.material = new ConcurrentHashMap<>(256);
 		this.configs = configs != null ? configs : Map.of();
+		this.index = new KeyIndex(this.configs);
+		this.weaver = new Weaver(this.configs);
+		this.converters = new Converters();
+		this.imports = new ConcurrentHashMap<>(32);
+		this.modules = new CopyOnWriteArrayList<>();
+		this.building = ConcurrentHashMap.newKeySet();
+		this.appending = new ConcurrentLinkedQueue<>();
+	}
+	
+	/**
+	 * Construct the factory of a module: the crafts are resolved locally first and then in the parent.
+	 */
+	public Factory(Map<String, Craft> container, Map<String, String> configs, Factory parent) {
+		this(container, configs);
+		this.parent = parent;
+		if(parent != null) parent.modules.add(this);
 	}
 	
 	/**
 	 * <b>IMPORTANT: The method can only be called ONCE!</b>
 	 */
-	public void launch() {
+	public synchronized void launch() {
 		if(this.launched) return;
 		this.assembleAndInstanceCrafts();
 		this.launched = true; //The method can only be called ONCE.
@@ -78,10 +130,26 @@ public class Factory implements Binder, Loader{
 		}
 	}
 	
+	/**
+	 * The files are parsed in parallel and the beans are registered in the order of files.
+	 */
 	private void resolveXmlConfigBasedCrafts(String... xmlResources) {
 		if(Hotpot.isNull(xmlResources)) return;
+		registerXmlCrafts(XmlLoader.load(xmlResources), xmlResources);
+	}
+	
+	private void registerXmlCrafts(List<List<Craft>> crafts, String... xmlResources) {
 		for(int i = 0; i < xmlResources.length; i++) {
-			this.loadAndResolveXMLCrafts(xmlResources[i]);
+			for(var craft : crafts.get(i)) {
+				var id = craft.getName();
+				if(definitions.putIfAbsent(id, xmlResources[i]) != null) {
+					throw Panic.duplicateCraft(id, xmlResources[i]);
+				}
+				if(craft.getTemplate() instanceof Definition) {
+					beans.put(id, (Definition)craft.getTemplate());
+				}
+				this.register(craft);
+			}
 		}
 	}
 	
@@ -98,14 +166,16 @@ public class Factory implements Binder, Loader{
 	}
 	
 	/**
-	 * Load and register managed beans from a JAR file.
+	 * Load and register managed beans from a JAR file. The JAR is loaded into its own 
+	 * class loader(classes are defined in parallel), which is closed with the factory.
 	 */
 	@Override
 	public Loader load(String jar) {
 		if(launched) return this;
 		if(Hotpot.isNull(jar)) return this;
-		var classes = Scanner.scanJar(jar);
-		if(Objects.isNull(classes)) return this;
+		var loader = new JarLoader(jar, Factory.class.getClassLoader());
+		weaver.manage(loader); //Closed with the context
+		var classes = loader.loadAll();
 		if(classes.isEmpty()) return this;
 		for(var clazz : classes) {
 			this.register(clazz);
@@ -153,6 +223,28 @@ public class Factory implements Binder, Loader{
 		return this;
 	}
 	
+	@Override
+	public Loader restore(String descriptor, String... xmlResources) {
+		if(this.launched) return this;
+		var sources = Hotpot.isNull(xmlResources) ? Descriptor.sourcesOf(descriptor) : xmlResources;
+		if(Objects.isNull(sources)) {
+			throw new Panic("Can not restore from the descriptor [" + descriptor + "]");
+		}
+		var crafts = Descriptor.load(descriptor);
+		if(crafts != null && Arrays.equals(sources, Descriptor.sourcesOf(descriptor))) {
+			registerXmlCrafts(crafts, sources);
+			return this;
+		}
+		LOGGER.info("The descriptor [" + descriptor + "] is stale, parse the XML files.");
+		resolveXmlConfigBasedCrafts(sources);
+		try {
+			Descriptor.compile(descriptor, sources);
+		}catch(Panic e) { //Read-only?
+			LOGGER.log(Level.WARNING, "Failed to compile the descriptor.", e);
+		}
+		return this;
+	}
+	
 	/**
 	 * Append a managed bean instance into DI container.
 	 */
@@ -238,6 +330,13 @@ public class Factory implements Binder, Loader{
 		return this;
 	}
 	
+	@Override
+	public<T> Binder convert(Class<T> type, Converter<? extends T> converter) {
+		if(this.launched) return this;
+		this.converters.register(type, converter);
+		return this;
+	}
+	
 	@Override
 	public Binder include(Object obj, String...name) {
 		if(this.launched) return this;
@@ -254,15 +353,143 @@ public class Factory implements Binder, Loader{
 	
 	/**
 	 * Append managed objects into context after calling {@link start()}.<br>
-	 * The method equals the statement {@code register(classes).start();} <br>
-	 * Dont't call it directly on a factory instance, call the {@link Context.append()} instead. 
+	 * Only the new crafts are wired against the live container, the concurrent appends are 
+	 * published together with ONE swap of the container. A craft whose dependences are absent 
+	 * waits in the factory and it's wired by a later append.<br>
+	 * Dont't call it directly on a factory instance, call the {@link Context#append(Class...)} instead. 
 	 */
 	@Override
 	public void append(Class<?>... classes) {
-		if(!this.launched) return;
-		if(!material.isEmpty()) return;
-		this.register0(classes);
-		this.assembleAndInstanceCrafts();
+		this.appendAndReport(classes);
+	}
+	
+	/**
+	 * See {@link #append(Class...)}. The error of an appended craft is thrown as it is.
+	 * @return The unresolved dependences of the appended crafts still waiting(name->dependences).
+	 */
+	@Override
+	public Map<String, Set<String>> appendAndReport(Class<?>... classes) {
+		if(!this.launched) return Map.of();
+		if(Hotpot.isNull(classes)) return Map.of();
+		var batch = new ArrayList<Craft>(classes.length);
+		for(var clazz : classes) {
+			var craft = toCraft(clazz);
+			if(craft != null) batch.add(craft);
+		}
+		var request = new Appending(batch);
+		appending.add(request);
+		synchronized(this) {
+			if(!request.result.isDone()) this.publish();
+		}
+		try {
+			return request.result.join();
+		}catch(CompletionException e) {
+			var cause = e.getCause();
+			if(cause instanceof RuntimeException) throw (RuntimeException)cause;
+			if(cause instanceof Error) throw (Error)cause;
+			throw e;
+		}
+	}
+	
+	private static class Appending{
+		private List<Craft> crafts;
+		private CompletableFuture<Map<String, Set<String>>> result;
+		
+		Appending(List<Craft> crafts){
+			this.crafts = crafts;
+			this.result = new CompletableFuture<>();
+		}
+	}
+	
+	/**
+	 * Wire all queued appends and the waiting crafts into a copy of the container and swap it.
+	 */
+	private void publish() {
+		var requests = new ArrayList<Appending>();
+		for(var r = appending.poll(); r != null; r = appending.poll()) {
+			requests.add(r);
+		}
+		if(requests.isEmpty()) return;
+		try {
+			this.publish(requests);
+		}catch(RuntimeException | Error e) { //Never leave the waiting callers blocked
+			requests.forEach(r -> r.result.completeExceptionally(e));
+			throw e;
+		}
+	}
+	
+	private void publish(List<Appending> requests) {
+		requests.forEach(r -> r.crafts.forEach(this::appendMaterial));
+		var next = new HashMap<String, Craft>(this.crafts);
+		var errors = this.wire(next, material);
+		this.crafts = next; //Swap
+		var unresolved = this.unresolved(next);
+		var waiting = new ArrayList<String>();
+		for(var r : requests) {
+			var error = r.crafts.stream().map(errors::get).filter(Objects::nonNull).findFirst();
+			if(error.isPresent()) {
+				r.result.completeExceptionally(error.get());
+				continue;
+			}
+			var result = new HashMap<String, Set<String>>();
+			for(var craft : r.crafts) {
+				var missing = unresolved.get(craft);
+				if(missing != null) result.put(craft.getName(), missing);
+			}
+			waiting.addAll(result.keySet());
+			r.result.complete(result);
+		}
+		if(!waiting.isEmpty()) {
+			LOGGER.warning("The appended crafts are waiting for their dependences: " + waiting);
+		}
+	}
+	
+	/**
+	 * Assemble the crafts in material as many as possible, the crafts failed are dropped.
+	 * @return The crafts failed and the errors.
+	 */
+	private Map<Craft, RuntimeException> wire(Map<String, Craft> crafts, Map<String, Craft> material) {
+		var result = new IdentityHashMap<Craft, RuntimeException>();
+		this.importDependences(crafts, material);
+		for(var progress = true; progress && !material.isEmpty();) {
+			progress = false;
+			for(var entry : material.entrySet()) {
+				var craft = entry.getValue();
+				try {
+					if(!craft.isAssembled()) {
+						craft.inject(crafts, material, index, converters);
+						craft.construct().assemble().execute();
+					}
+				}catch(RuntimeException e) {
+					result.put(craft, e);
+					material.values().removeIf(c -> c == craft);
+					continue;
+				}
+				if(craft.isAssembled()) {
+					var key = entry.getKey();
+					crafts.put(key, craft);
+					material.remove(key);
+					progress = true;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The crafts waiting in material and their absent dependences.
+	 */
+	private Map<Craft, Set<String>> unresolved(Map<String, Craft> crafts){
+		var result = new IdentityHashMap<Craft, Set<String>>();
+		for(var craft : material.values()) {
+			if(result.containsKey(craft)) continue; //Bound
+			var missing = new TreeSet<String>();
+			for(var name : craft.getDependences()) {
+				if(!crafts.containsKey(name)) missing.add(name);
+			}
+			result.put(craft, missing);
+		}
+		return result;
 	}
 	
 	/**
@@ -277,6 +504,7 @@ public class Factory implements Binder, Loader{
 	
 	private void appendMaterial(Craft craft) {
 		if(Objects.isNull(craft)) return;
+		craft.setWeaver(weaver);
 		var name = craft.getName();
 		material.put(name, craft);
 		var bind = binders.get(name);
@@ -297,6 +525,7 @@ public class Factory implements Binder, Loader{
 		var result = toCraft(bean.getClass());
 		if(Objects.isNull(result)) return;
 		result.setInstance(bean);
+		result.setTemplate(null); //External
 		this.appendMaterial(result);
 	}
 
@@ -324,7 +553,10 @@ public class Factory implements Binder, Loader{
 		ifBindAnnotaionPresents(clazz);
 		if(!Hotpot.newable(clazz)) return null;
 		var analyzer = new Analyzer(clazz.getDeclaredAnnotations(), 2, clazz.getName());
-		return analyzer.isManagedObject() ? new Craft(clazz, analyzer) : null;
+		if(!analyzer.isManagedObject()) return null;
+		var result = new Craft(clazz, analyzer);
+		result.setTemplate(() -> new Craft(clazz, analyzer));
+		return result;
 	}
 	
 	private Craft toCraft(String className) {
@@ -336,23 +568,6 @@ public class Factory implements Binder, Loader{
 	}
 	
 	/**Crafts defined in XML file.*/
-	private void loadAndResolveXMLCrafts(String resource){
-		if(Hotpot.isNull(resource)) return;
-		try {
-			var factory = DocumentBuilderFactory.newInstance();
-			var stream = new FileInputStream(resource);
-			var doc = factory.newDocumentBuilder().parse(stream);
-	        doc.getDocumentElement().normalize();
-	        var crafts = doc.getElementsByTagName("bean");
-	        if(Objects.isNull(crafts)) return;
-	        for(int i = 0; i < crafts.getLength(); i++) {
-	        	register(new XmlBean().toCraft(crafts.item(i)));
-	        }
-		}catch(Exception e) {
-			throw Panic.failed2ParseJson(resource, e);
-		}
-	}
-	
 	private void scanAndResolveCrafts(String classpath) {
 		if(Hotpot.isNull(classpath)) return;
 		var base = new File(classpath);//Root class-path
@@ -363,27 +578,216 @@ public class Factory implements Binder, Loader{
 	}
 	
 	private Factory assembleAndInstanceCrafts() {
-		var quantity = material.size();
-		if(quantity == 0) return this; //Assemble Completed
-		for(var entry : material.entrySet()) {
-			var craft = entry.getValue();
-			if(!craft.isAssembled()) {
-				craft.inject(crafts, material, configs);
-				craft.construct().assemble().execute();
+		var deferred = defer(material);
+		assemble(crafts, material);
+		build(deferred);
+		return this;
+	}
+	
+	/**
+	 * Take the crafts injected via AsyncProvider only out of material, they are built in background.
+	 */
+	private Map<String, Craft> defer(Map<String, Craft> material) {
+		var deferred = Collections.newSetFromMap(new IdentityHashMap<Craft, Boolean>());
+		for(var craft : material.values()) {
+			for(var name : craft.getDependences(true)) {
+				var target = material.get(name);
+				if(target != null) deferred.add(target);
+			}
+		}
+		for(var changed = !deferred.isEmpty(); changed;) {
+			changed = false; //The crafts needed synchronously
+			for(var craft : material.values()) {
+				if(deferred.contains(craft)) continue;
+				for(var name : craft.getDependences(false)) {
+					var target = material.get(name);
+					if(target != null && deferred.remove(target)) changed = true;
+				}
+			}
+		}
+		var result = new HashMap<String, Craft>();
+		if(deferred.isEmpty()) return result;
+		material.forEach((k, v) -> {
+			if(deferred.contains(v)) result.put(k, v);
+		});
+		result.keySet().forEach(material::remove);
+		deferred.forEach(craft -> craft.setDeferred(true));
+		material.values().forEach(craft -> craft.provide(result));
+		result.values().forEach(craft -> craft.provide(result));
+		return result;
+	}
+	
+	/**
+	 * Build the deferred crafts on the container executor(after their deferred dependences) 
+	 * and publish them into the container. 
+	 */
+	private void build(Map<String, Craft> deferred) {
+		if(deferred.isEmpty()) return;
+		var executor = weaver.getDispatcher();
+		var names = new IdentityHashMap<Craft, Set<String>>(); //Aliases
+		deferred.forEach((k, v) -> names.computeIfAbsent(v, c -> new HashSet<>()).add(k));
+		for(var entry : names.entrySet()) {
+			var craft = entry.getKey();
+			var gates = new ArrayList<CompletableFuture<Craft>>();
+			for(var name : craft.getDependences(false)) {
+				var target = deferred.get(name);
+				if(target != null && target != craft) gates.add(target.whenBuilt());
+			}
+			var task = CompletableFuture.allOf(gates.toArray(new CompletableFuture<?>[0]))
+										.thenRunAsync(() -> build(craft, entry.getValue(), deferred), executor::execute);
+			building.add(task);
+			task.whenComplete((v, e) -> building.remove(task))
+				.exceptionally(e -> {
+					var cause = e.getCause() != null ? e.getCause() : e;
+					if(!stopped) { //Cancelled or closed while shutting down
+						LOGGER.log(Level.WARNING, "Failed to build the craft " + craft.getName(), cause);
+					}
+					craft.whenBuilt().completeExceptionally(cause);
+					return null;
+				});
+		}
+	}
+	
+	private void build(Craft craft, Set<String> names, Map<String, Craft> deferred) {
+		if(stopped) throw Panic.closed("factory");
+		var crafts = new HashMap<String, Craft>(this.crafts);
+		deferred.forEach((k, v) -> {
+			if(v.whenBuilt().isDone()) crafts.put(k, v);
+		});
+		var material = new HashMap<String, Craft>();
+		names.forEach(name -> material.put(name, craft));
+		craft.inject(crafts, material, index, converters);
+		craft.construct().assemble().execute();
+		if(!craft.isAssembled()) {
+			throw Panic.circularDependence(craft.getName());
+		}
+		var published = false;
+		synchronized(this) {
+			if(!stopped) {
+				var next = new HashMap<String, Craft>(this.crafts);
+				names.forEach(name -> next.put(name, craft));
+				this.crafts = next; //Swap
+				published = true;
+			}
+		}
+		if(!published) { //Too late, nobody destroys it
+			craft.destroy();
+			throw Panic.closed("factory");
+		}
+		craft.setDeferred(false);
+		craft.whenBuilt(); //Completed
+	}
+	
+	/**
+	 * Wait for the crafts being built in background at most the timeout(milliseconds) and cancel 
+	 * the rest before the container is destroyed, so the built ones are destroyed with it. 
+	 * A craft finishes later is destroyed instead of being published.
+	 */
+	public void stop(long timeout) {
+		var tasks = building.toArray(new CompletableFuture<?>[0]);
+		try {
+			CompletableFuture.allOf(tasks).get(timeout, TimeUnit.MILLISECONDS);
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}catch(ExecutionException | TimeoutException e) {
+			//Failed ones are logged, the rest are cancelled
+		}
+		synchronized(this) {
+			this.stopped = true;
+		}
+		building.forEach(task -> task.cancel(false));
+	}
+	
+	/**
+	 * Move the crafts from material into the container once they are assembled.
+	 */
+	/**
+	 * Assemble the new crafts aside, the singletons built are destroyed if anything goes wrong.
+	 */
+	private void assembleAside(Map<String, Craft> crafts, Map<String, Craft> material) {
+		var fresh = Collections.newSetFromMap(new IdentityHashMap<Craft, Boolean>());
+		fresh.addAll(material.values());
+		try {
+			this.assemble(crafts, material);
+		}catch(RuntimeException | Error e) {
+			fresh.forEach(this::discard);
+			throw e;
+		}
+	}
+	
+	private void discard(Craft craft) {
+		weaver.release(craft);
+		try {
+			craft.destroy();
+		}catch(RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Failed to destroy the discarded craft.", e);
+		}
+	}
+	
+	private void assemble(Map<String, Craft> crafts, Map<String, Craft> material) {
+		this.importDependences(crafts, material);
+		while(!material.isEmpty()) {
+			var quantity = material.size();
+			for(var entry : material.entrySet()) {
+				var craft = entry.getValue();
+				if(!craft.isAssembled()) {
+					craft.inject(crafts, material, index, converters);
+					craft.construct().assemble().execute();
+				}
+				if(craft.isAssembled()) {
+					var key = entry.getKey();
+					crafts.put(key, craft);
+					material.remove(key);
+				}
 			}
-			if(craft.isAssembled()) {
-				var key = entry.getKey();
-				this.crafts.put(key, craft);
-				this.material.remove(key);
+			if(quantity == material.size()){ //Not Empty
+				throw Panic.circularDependence(dump(material));
 			}
 		}
-		if(quantity == material.size()){ //Not Empty
-			throw Panic.circularDependence(dump());
+	}
+	
+	/**
+	 * Put the dependences can't be resolved locally but in the parent into the container.
+	 */
+	private void importDependences(Map<String, Craft> crafts, Map<String, Craft> material) {
+		if(Objects.isNull(parent)) return;
+		for(var craft : material.values()) {
+			for(var name : craft.getDependences()) {
+				if(crafts.containsKey(name)) continue;
+				if(material.containsKey(name)) continue;
+				var result = lookup(name);
+				if(result != null) crafts.put(name, result);
+			}
 		}
-		return this.assembleAndInstanceCrafts();
 	}
 	
-	private String dump() {
+	/**
+	 * Resolve the craft in the parent(and its ancestors), the hit is cached.
+	 * @return Returns null if the factory is not a module or the craft does not exist.
+	 */
+	public Craft lookup(String name) {
+		if(Objects.isNull(parent)) return null;
+		if(Objects.isNull(name)) return null;
+		var result = imports.get(name);
+		if(result != null) return result;
+		result = parent.find(name);
+		if(result != null) imports.put(name, result);
+		return result;
+	}
+	
+	private Craft find(String name) {
+		var result = crafts.get(name);
+		return result != null ? result : lookup(name);
+	}
+	
+	/**
+	 * @return Returns true if the craft is owned by the parent.
+	 */
+	public boolean isImported(String name) {
+		return imports.containsKey(name);
+	}
+	
+	private static String dump(Map<String, Craft> material) {
 		var result = new StringBuilder();
 		material.keySet().forEach(key->{
 			result.append(key).append(", ");
@@ -401,4 +805,235 @@ public class Factory implements Binder, Loader{
 	public boolean launched() {
 		return this.launched;
 	}
+	
+	public Weaver getWeaver() {
+		return this.weaver;
+	}
+	
+	public Map<String, String> getConfigs(){
+		return this.configs;
+	}
+	
+	/**
+	 * Replace the configurations and re-inject the changed KEYs into the crafts.<br>
+	 * All changed values are converted before anything is applied: if one of them 
+	 * is bad, the method throws and the container keeps the old configurations.
+	 * Concurrent reloads are serialized.
+	 * @return The changed(added, modified or removed) keys.
+	 */
+	public synchronized Set<String> reload(Map<String, String> configs) {
+		var fresh = configs != null ? configs : Map.<String, String>of();
+		var changed = diff(this.configs, fresh);
+		if(changed.isEmpty()) return changed;
+		var patches = new ArrayList<Runnable>();
+		var index = new KeyIndex(fresh);
+		var visited = new IdentityHashMap<Craft, Boolean>();
+		for(var craft : crafts.values()) {
+			if(visited.put(craft, Boolean.TRUE) != null) continue; //Bound
+			var patch = craft.refresh(changed, index, converters);
+			if(patch != null) patches.add(patch);
+		}
+		this.index = index;
+		this.configs = fresh;
+		this.weaver.setConfigs(fresh);
+		patches.forEach(Runnable::run);
+		LOGGER.info("Reloaded " + changed.size() + " configuration keys, " + patches.size() + " crafts re-injected.");
+		return changed;
+	}
+	
+	public Map<String, Craft> getCrafts(){
+		return this.crafts;
+	}
+	
+	/**
+	 * The XML files the beans are parsed from.
+	 */
+	public synchronized Set<String> getResources(){
+		return new HashSet<>(definitions.values());
+	}
+	
+	/**
+	 * Parse the XML file again and replace the changed beans(by id) and the crafts depend on them 
+	 * (transitively). The new crafts are assembled aside and swapped into the container at once: 
+	 * if anything goes wrong, the method throws and the container is untouched. The replaced 
+	 * singletons are destroyed after a grace period(whale.reload.grace, 30 seconds by default).
+	 * @return The names of the added, changed, removed and rebuilt crafts.
+	 */
+	public synchronized Set<String> reload(String resource) {
+		var fresh = new LinkedHashMap<String, Definition>();
+		XmlReader.read(resource, bean -> {
+			if(fresh.put(bean.getId(), bean) != null) {
+				throw Panic.duplicateCraft(bean.getId(), resource);
+			}
+		});
+		var changed = new HashSet<String>();
+		for(var bean : fresh.values()) {
+			var owner = definitions.get(bean.getId());
+			if(owner != null && !owner.equals(resource)) {
+				throw Panic.duplicateCraft(bean.getId(), resource);
+			}
+			if(!bean.equals(beans.get(bean.getId()))) changed.add(bean.getId());
+		}
+		var removed = new HashSet<String>();
+		for(var entry : definitions.entrySet()) {
+			if(!entry.getValue().equals(resource)) continue;
+			if(!fresh.containsKey(entry.getKey())) removed.add(entry.getKey());
+		}
+		if(changed.isEmpty() && removed.isEmpty()) return Set.of();
+		
+		var current = this.crafts;
+		var names = new IdentityHashMap<Craft, Set<String>>(); //Aliases
+		current.forEach((k, v) -> names.computeIfAbsent(v, c -> new HashSet<>()).add(k));
+		var affected = new HashSet<String>(changed);
+		affected.addAll(removed);
+		var retired = new IdentityHashMap<Craft, Set<String>>();
+		for(var name : affected) {
+			var craft = current.get(name);
+			if(craft != null) retired.put(craft, names.get(craft));
+		}
+		dependents(names, affected, retired);
+		
+		var next = new HashMap<String, Craft>(current);
+		var pending = new ConcurrentHashMap<String, Craft>();
+		retired.values().forEach(keys -> keys.forEach(next::remove));
+		for(var entry : retired.entrySet()) {
+			var old = entry.getKey();
+			if(removed.contains(old.getName())) continue;
+			if(fresh.containsKey(old.getName())) continue; //Rebuilt below
+			var craft = old.renew();
+			if(Objects.isNull(craft)) {
+				throw Panic.cannotInstance(old.getName(), new IllegalStateException("It can not be rebuilt."));
+			}
+			entry.getValue().forEach(key -> pending.put(key, craft));
+		}
+		for(var id : fresh.keySet()) {
+			if(!affected.contains(id) || removed.contains(id)) continue;
+			var craft = fresh.get(id).toCraft();
+			craft.setWeaver(weaver);
+			pending.put(id, craft);
+			var bind = binders.get(id);
+			if(bind != null) pending.put(bind, craft);
+		}
+		this.assembleAside(next, pending); //Throws if failed
+		
+		this.crafts = next; //Swap
+		removed.forEach(id -> { definitions.remove(id); beans.remove(id); });
+		fresh.forEach((id, bean) -> { definitions.put(id, resource); beans.put(id, bean); });
+		this.retire(retired.keySet());
+		LOGGER.info("Reloaded [" + resource + "]: " + changed.size() + " changed, " + removed.size() + " removed, " + retired.size() + " crafts rebuilt.");
+		modules.forEach(module -> module.reimport(affected));
+		return affected;
+	}
+	
+	/**
+	 * Collect the local crafts depend on the affected names transitively(the names are extended).
+	 */
+	private void dependents(Map<Craft, Set<String>> names, Set<String> affected, Map<Craft, Set<String>> retired) {
+		for(var more = true; more;) {
+			more = false;
+			for(var entry : names.entrySet()) {
+				var craft = entry.getKey();
+				if(retired.containsKey(craft)) continue;
+				if(entry.getValue().stream().anyMatch(imports::containsKey)) continue;
+				if(!craft.dependsOn(affected)) continue;
+				retired.put(craft, entry.getValue());
+				affected.addAll(entry.getValue());
+				more = true;
+			}
+		}
+	}
+	
+	/**
+	 * The parent replaced the crafts of the names: drop the cached imports and rebuild the local 
+	 * crafts depend on them, so the module is wired to the new ones. If the rebuilding fails, 
+	 * the module keeps the old crafts(they are destroyed by the parent after the grace period).
+	 */
+	private synchronized void reimport(Set<String> replaced) {
+		var stale = new HashMap<String, Craft>();
+		for(var name : replaced) {
+			var craft = imports.remove(name);
+			if(craft != null) stale.put(name, craft);
+		}
+		var affected = new HashSet<String>(replaced);
+		if(!stale.isEmpty()) {
+			try {
+				affected.addAll(rebuild(stale.keySet()));
+			}catch(RuntimeException e) {
+				imports.putAll(stale);
+				LOGGER.log(Level.WARNING, "Failed to rewire the module to the reloaded crafts.", e);
+				return;
+			}
+		}
+		modules.forEach(module -> module.reimport(affected));
+	}
+	
+	private Set<String> rebuild(Set<String> stale) {
+		var current = this.crafts;
+		var names = new IdentityHashMap<Craft, Set<String>>(); //Aliases
+		current.forEach((k, v) -> {
+			if(!stale.contains(k)) names.computeIfAbsent(v, c -> new HashSet<>()).add(k);
+		});
+		var affected = new HashSet<String>(stale);
+		var retired = new IdentityHashMap<Craft, Set<String>>();
+		dependents(names, affected, retired);
+		var next = new HashMap<String, Craft>(current);
+		stale.forEach(next::remove); //Imported again while assembling
+		var pending = new ConcurrentHashMap<String, Craft>();
+		for(var entry : retired.entrySet()) {
+			var old = entry.getKey();
+			entry.getValue().forEach(next::remove);
+			var craft = old.renew();
+			if(Objects.isNull(craft)) {
+				throw Panic.cannotInstance(old.getName(), new IllegalStateException("It can not be rebuilt."));
+			}
+			entry.getValue().forEach(key -> pending.put(key, craft));
+		}
+		this.assembleAside(next, pending); //Throws if failed
+		this.crafts = next; //Swap
+		this.retire(retired.keySet());
+		return affected;
+	}
+	
+	/**
+	 * Detach the module from its parent(e.g. the module is closed).
+	 */
+	public void detach() {
+		if(parent != null) parent.modules.remove(this);
+	}
+	
+	/**
+	 * Destroy the replaced singletons and release the batchers after the grace period.
+	 */
+	private void retire(Set<Craft> crafts) {
+		if(crafts.isEmpty()) return;
+		if(Objects.isNull(retirer)) {
+			this.retirer = Executors.newSingleThreadScheduledExecutor(Hotpot.threadFactory("whale-retirer"));
+			var executor = this.retirer;
+			weaver.manage(() -> executor.shutdownNow().forEach(Runnable::run));
+		}
+		var grace = weaver.getConfig("whale.reload.grace", 30);
+		for(var craft : crafts) {
+			retirer.schedule(() -> {
+				weaver.release(craft); //The batchers are shared by the prototypes too
+				if(!craft.isSingleton()) return;
+				try {
+					craft.destroy();
+				}catch(RuntimeException e) {
+					LOGGER.log(Level.WARNING, "Failed to destroy the replaced craft.", e);
+				}
+			}, grace, TimeUnit.SECONDS);
+		}
+	}
+	
+	private static Set<String> diff(Map<String, String> prev, Map<String, String> next){
+		var result = new HashSet<String>();
+		for(var entry : next.entrySet()) {
+			var old = prev.get(entry.getKey());
+			if(!entry.getValue().equals(old)) result.add(entry.getKey());
+		}
+		for(var key : prev.keySet()) {
+			if(!next.containsKey(key)) result.add(key);
+		}
+		return result;
+	}
 }
\ No newline at end of file
@@ -22,24 +22,32 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.util.Converter;
+import cn.techarts.whale.util.Converters;
 import cn.techarts.whale.util.Hotpot;
+import cn.techarts.whale.util.KeyIndex;
 
 /**
  * The class describes an injection in a managed object.<p>
  * 1. REF: A reference to another craft.<br>
  * 2. KEY: A configuration key in the configs.properties.<br>
  * 3. VAL: An explicit value(String and built-in primitive types).<br>
- * 4. PROVIDER: Please refer to the {@link javax.inject.Provider}
+ * 4. PROVIDER: Please refer to the {@link javax.inject.Provider}<br>
+ * 5. BIND: The configuration keys under a prefix bound onto an object.<br>
+ * 6. ASYNC: Please refer to the {@link cn.techarts.whale.AsyncProvider}
  * @author rocwon@gmail.com
  */
 public class Injectee {
 	private int __t;
 	private Type type;
 	private String name;
+	private String raw;
 	private Object value;
 	private boolean assembled;
+	private Converter<?> converter;
 	
-	public static final int NON = 0, REF = 1, KEY = 2, VAL = 3, PROVIDER = 4;
+	public static final int NON = 0, REF = 1, KEY = 2, VAL = 3, PROVIDER = 4, BIND = 5, ASYNC = 6;
 	
 	/**Create a REF object*/
 	public static Injectee ref(String ref) {
@@ -69,6 +77,14 @@ public class Injectee {
 		return result;
 	}
 	
+	/**Create an interface of AsyncProvider*/
+	public static Injectee async(Type t, Annotation[] args) {
+		var result = new Injectee(ASYNC, t);
+		var a = new Analyzer(args, 2, t.getTypeName());
+		result.setName(a.getQualifierName());
+		return result;
+	}
+	
 	Injectee(int __t) {
 		this.__t = __t;
 	}
@@ -84,11 +100,11 @@ public class Injectee {
 	}
 	
 	public Injectee(Parameter p) {
-		new Analyzer(p.getAnnotations(), 3).set(this, p.getType());
+		new Analyzer(p.getAnnotations(), 3).set(this, p.getType(), p.getParameterizedType());
 	}
 	
 	public Injectee(Field f) {
-		new Analyzer(f.getAnnotations(), 3).set(this, f.getType());
+		new Analyzer(f.getAnnotations(), 3).set(this, f.getType(), f.getGenericType());
 	}
 	
 	public void setName(String name) {
@@ -110,11 +126,28 @@ public class Injectee {
 		return this.__t == VAL;
 	}
 	
+	public boolean isBIND() {
+		return this.__t == BIND;
+	}
+	
+	/**
+	 * Bind the keys under the prefix(name) onto a new object of the type.
+	 */
+	public Object bind(KeyIndex configs, Converters converters) {
+		var clazz = Binding.rawOf(type);
+		return Binding.of(clazz).bind(name, configs, converters);
+	}
+	
 	/**is Provider*/
 	public boolean isPRV() {
 		return this.__t == PROVIDER;
 	}
 	
+	/**is AsyncProvider*/
+	public boolean isASYNC() {
+		return this.__t == ASYNC;
+	}
+	
 	public Object getValue() {
 		return value;
 	}
@@ -129,6 +162,34 @@ public class Injectee {
 		return type;
 	}
 	
+	/**
+	 * The explicit value(VAL) waiting for a container's converter.
+	 */
+	public String getRaw() {
+		return raw;
+	}
+	
+	public void setRaw(String raw) {
+		this.raw = raw;
+	}
+	
+	/**
+	 * Convert the raw value(KEY or VAL) to the injected type.<br>
+	 * The converter is resolved ONCE and the immutable result is cached by the registry.
+	 */
+	public Object convert(String raw, Converters registry) {
+		if(Objects.isNull(raw)) return null;
+		if(Objects.isNull(type)) return raw;
+		if(type == Object.class) return raw;
+		if(Objects.isNull(converter)) {
+			converter = registry.resolve(type);
+			if(Objects.isNull(converter)) {
+				throw Panic.unsupportedType(getTypeName());
+			}
+		}
+		return registry.parse(type, raw, converter);
+	}
+	
 	public void resetValue(Object value) {
 		this.value = value;
 	}
@@ -40,6 +40,13 @@ public interface Loader {
 	 */
 	public Loader parse(String[] xmlResources);
 	
+	/**
+	 * Load the managed objects from a compiled descriptor(see {@link Descriptor}). If the 
+	 * descriptor is missing or stale, parse the XML files(or the sources recorded in the 
+	 * descriptor) and compile the descriptor again.
+	 */
+	public Loader restore(String descriptor, String... xmlResources);
+	
 	/**
 	 * Scan the specified single class-path to register managed objects.
 	 */
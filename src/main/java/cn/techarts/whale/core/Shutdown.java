@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * Destroy the crafts in reverse topological order: a craft is destroyed after all crafts 
+ * depend on it, the independent crafts are destroyed in parallel. Every craft has a timeout, 
+ * the crafts depend on a timed-out one go on. If only circles are left, the circles no other
+ * craft depends on are destroyed together, and the rest go on in order.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Shutdown {
+	private long timeout;
+	private long deadline;
+	private Map<String, Craft> crafts;
+	private Map<Craft, Set<Craft>> dependences;
+	private Map<Craft, Integer> dependents;
+	private Set<Craft> pending;
+	private LinkedBlockingQueue<Craft> done;
+	private Report report;
+	
+	/**
+	 * @param timeout The milliseconds a craft is allowed to close.
+	 * @param deadline The milliseconds the whole shutdown is allowed.
+	 */
+	public Shutdown(Map<String, Craft> crafts, long timeout, long deadline) {
+		this.crafts = crafts;
+		this.timeout = timeout;
+		this.deadline = deadline;
+		this.report = new Report();
+		this.done = new LinkedBlockingQueue<>();
+		this.dependents = new IdentityHashMap<>();
+		this.dependences = new IdentityHashMap<>();
+		this.pending = Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+	
+	public Report run() {
+		var start = System.nanoTime();
+		crafts.values().forEach(craft -> dependents.put(craft, 0));
+		for(var craft : dependents.keySet()) {
+			var result = Collections.newSetFromMap(new IdentityHashMap<Craft, Boolean>());
+			for(var name : craft.getDependences()) {
+				var dependence = crafts.get(name);
+				if(dependence == null || dependence == craft) continue;
+				if(result.add(dependence)) dependents.merge(dependence, 1, Integer::sum);
+			}
+			dependences.put(craft, result);
+		}
+		pending.addAll(dependents.keySet());
+		var executor = Executors.newCachedThreadPool(Hotpot.threadFactory("whale-shutdown"));
+		try {
+			var running = 0;
+			for(var craft : dependences.keySet()) {
+				if(dependents.get(craft) == 0) {
+					destroy(craft, executor);
+					running++;
+				}
+			}
+			var end = start + TimeUnit.MILLISECONDS.toNanos(deadline);
+			while(!dependences.isEmpty()) {
+				if(running == 0) { //Circular
+					for(var craft : circles()) {
+						destroy(craft, executor);
+						running++;
+					}
+				}
+				var left = end - System.nanoTime();
+				var craft = left > 0 ? done.poll(left, TimeUnit.NANOSECONDS) : null;
+				if(craft == null) break; //Deadline
+				running--;
+				for(var dependence : dependences.remove(craft)) {
+					if(dependents.merge(dependence, -1, Integer::sum) > 0) continue;
+					if(!pending.contains(dependence)) continue;
+					destroy(dependence, executor);
+					running++;
+				}
+			}
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}finally {
+			executor.shutdownNow();
+		}
+		dependences.keySet().forEach(craft -> report.skipped.add(craft.getName()));
+		report.elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		return this.report;
+	}
+	
+	/**
+	 * The strongly connected components(Tarjan) of the pending crafts which no other pending 
+	 * craft depends on: the circles blocking the shutdown. The crafts depend on them wait.
+	 */
+	private List<Craft> circles() {
+		var components = new Components();
+		for(var craft : pending) {
+			if(!components.index.containsKey(craft)) components.connect(craft);
+		}
+		var blocked = new HashSet<Integer>();
+		for(var craft : pending) {
+			var from = components.owner.get(craft);
+			for(var dependence : dependences.get(craft)) {
+				var to = components.owner.get(dependence);
+				if(to != null && !to.equals(from)) blocked.add(to);
+			}
+		}
+		var result = new ArrayList<Craft>();
+		for(var craft : pending) {
+			if(!blocked.contains(components.owner.get(craft))) result.add(craft);
+		}
+		return result;
+	}
+	
+	private final class Components {
+		private int counter = 0;
+		private Deque<Craft> stack = new ArrayDeque<>();
+		private Map<Craft, Integer> owner = new IdentityHashMap<>(); //Component id
+		private Map<Craft, int[]> index = new IdentityHashMap<>(); //Index and low-link
+		
+		void connect(Craft craft) {
+			var self = new int[] {counter, counter++};
+			index.put(craft, self);
+			stack.push(craft);
+			for(var next : dependences.get(craft)) {
+				if(!pending.contains(next)) continue;
+				var other = index.get(next);
+				if(other == null) {
+					connect(next);
+					self[1] = Math.min(self[1], index.get(next)[1]);
+				}else if(!owner.containsKey(next)) { //On the stack
+					self[1] = Math.min(self[1], other[0]);
+				}
+			}
+			if(self[1] != self[0]) return;
+			for(Craft member = null; member != craft;) {
+				member = stack.pop();
+				owner.put(member, self[0]);
+			}
+		}
+	}
+	
+	private void destroy(Craft craft, Executor executor) {
+		pending.remove(craft);
+		CompletableFuture.runAsync(craft::destroy, executor)
+						 .orTimeout(timeout, TimeUnit.MILLISECONDS)
+						 .whenComplete((v, e) -> {
+							 var name = craft.getName();
+							 if(e == null) {
+								 report.closed.add(name);
+							 }else if(e instanceof TimeoutException) {
+								 report.timeouts.add(name);
+							 }else {
+								 report.failures.put(name, e.getCause() != null ? e.getCause() : e);
+							 }
+							 done.add(craft);
+						 });
+	}
+	
+	/**
+	 * What happened to each craft during the shutdown.
+	 */
+	public static class Report{
+		private long elapsed;
+		private List<String> closed = Collections.synchronizedList(new ArrayList<>());
+		private List<String> timeouts = Collections.synchronizedList(new ArrayList<>());
+		private List<String> skipped = Collections.synchronizedList(new ArrayList<>());
+		private Map<String, Throwable> failures = new ConcurrentHashMap<>();
+		
+		/**
+		 * The crafts destroyed(or nothing to destroy) in time, in the order they are done.
+		 */
+		public List<String> getClosed() {
+			return closed;
+		}
+		
+		/**
+		 * The crafts did not finish closing within the timeout.
+		 */
+		public List<String> getTimeouts() {
+			return timeouts;
+		}
+		
+		/**
+		 * The crafts not destroyed(or still closing) before the deadline.
+		 */
+		public List<String> getSkipped() {
+			return skipped;
+		}
+		
+		public Map<String, Throwable> getFailures() {
+			return failures;
+		}
+		
+		public long getElapsed() {
+			return elapsed;
+		}
+		
+		public boolean isClean() {
+			return timeouts.isEmpty() && skipped.isEmpty() && failures.isEmpty();
+		}
+		
+		@Override
+		public String toString() {
+			return new StringBuilder("Shutdown")
+				.append("[elapsed=").append(elapsed).append("ms")
+				.append(", closed=").append(closed.size())
+				.append(", timeouts=").append(timeouts)
+				.append(", failures=").append(failures.keySet())
+				.append(", skipped=").append(skipped)
+				.append("]").toString();
+		}
+	}
+}
@@ -35,6 +35,24 @@ import cn.techarts.whale.util.Hotpot;
  */
 public class XmlBean {
 	
+	private static final ClassValue<Map<String, Field>> FIELDS = new ClassValue<>() {
+		@Override
+		protected Map<String, Field> computeValue(Class<?> type) {
+			var result = new HashMap<String, Field>();
+			getFields(result, type);
+			return Map.copyOf(result);
+		}
+	};
+	
+	private static final ClassValue<Map<String, Method>> METHODS = new ClassValue<>() {
+		@Override
+		protected Map<String, Method> computeValue(Class<?> type) {
+			var result = new HashMap<String, Method>();
+			getMethods(result, type);
+			return Map.copyOf(result);
+		}
+	};
+	
 	//TODO XML DOES NOT SUPPORT PROVIDER, BIND AND READY
 	public XmlBean() {
 	}
@@ -69,8 +87,7 @@ public class XmlBean {
 		var first = (org.w3c.dom.Element)nodes.item(0);
 		var props = first.getElementsByTagName("prop");
 		if(this.isNull(props)) return;
-		var fields = new HashMap<String, Field>();
-		getFields(fields, Hotpot.forName(result.getType()));
+		var fields = fieldsOf(Hotpot.forName(result.getType()));
 		for(int i = 0; i < props.getLength(); i++) {
 			var prop = props.item(i);
 			if(prop.getNodeType() != Node.ELEMENT_NODE) continue;
@@ -86,8 +103,7 @@ public class XmlBean {
 		var first = (org.w3c.dom.Element)nodes.item(0);
 		var methods = first.getElementsByTagName("method");
 		if(this.isNull(methods)) return;
-		var funs = new HashMap<String, Method>();
-		getMethods(funs, Hotpot.forName(result.getType()));
+		var funs = methodsOf(Hotpot.forName(result.getType()));
 		for(int i = 0; i < methods.getLength(); i++) {
 			var fun = methods.item(i); //A method
 			if(fun.getNodeType() != Node.ELEMENT_NODE) continue;
@@ -118,7 +134,21 @@ public class XmlBean {
 		return result;
 	}
 	
-	private void getFields(Map<String, Field> result, Class<?> clazz) {
+	/**
+	 * The fields(include super classes) by name. It's computed ONCE per class.
+	 */
+	static Map<String, Field> fieldsOf(Class<?> clazz){
+		return FIELDS.get(clazz);
+	}
+	
+	/**
+	 * The methods(include super classes) by name. It's computed ONCE per class.
+	 */
+	static Map<String, Method> methodsOf(Class<?> clazz){
+		return METHODS.get(clazz);
+	}
+	
+	static void getFields(Map<String, Field> result, Class<?> clazz) {
 		if(Objects.isNull(clazz)) return; //Without super class
 		var fs = clazz.getDeclaredFields();
 		if(fs != null && fs.length != 0) {
@@ -129,7 +159,7 @@ public class XmlBean {
 		getFields(result, clazz.getSuperclass());
 	}	
 	
-	private void getMethods(Map<String, Method> result, Class<?> clazz) {
+	static void getMethods(Map<String, Method> result, Class<?> clazz) {
 		if(Objects.isNull(clazz)) return; //Without super class
 		var ms = clazz.getDeclaredMethods();
 		if(ms != null && ms.length != 0) {
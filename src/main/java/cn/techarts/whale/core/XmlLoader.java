@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import cn.techarts.whale.util.Hotpot;
+
+/**
+ * Load the XML files in parallel. The beans of a file are streamed by {@link XmlReader} 
+ * and converted to crafts in parallel batches, the order of files and beans is kept.
+ * 
+ * @author rocwon@gmail.com
+ */
+final class XmlLoader {
+	private static final int BATCH = 256;
+	
+	private XmlLoader() {}
+	
+	/**
+	 * @return The crafts of each file, in the order of the files.
+	 */
+	static List<List<Craft>> load(String... resources){
+		if(resources.length == 1) return List.of(load(resources[0]));
+		return Arrays.stream(resources)
+					 .parallel()
+					 .map(XmlLoader::load)
+					 .collect(Collectors.toList());
+	}
+	
+	static List<Craft> load(String resource){
+		var result = new ArrayList<Craft>();
+		if(Hotpot.isNull(resource)) return result;
+		var batch = new ArrayList<Definition>(BATCH);
+		XmlReader.read(resource, bean -> {
+			batch.add(bean);
+			if(batch.size() < BATCH) return;
+			convert(batch, result);
+		});
+		convert(batch, result);
+		return result;
+	}
+	
+	private static void convert(List<Definition> batch, List<Craft> result) {
+		if(batch.isEmpty()) return;
+		batch.parallelStream()
+			 .map(Definition::toCraft)
+			 .forEachOrdered(result::add);
+		batch.clear();
+	}
+}
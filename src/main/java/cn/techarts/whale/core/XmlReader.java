@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.core;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * A StAX based reader of the beans XML. Each &lt;bean&gt; is passed to the consumer 
+ * as a {@link Definition} as soon as it's closed, so the memory is constant
+ * whatever the size of the file. The schema semantics are the same as {@link XmlBean}:
+ * the args, props and methods of a bean are taken only if they appear ONCE.
+ * 
+ * @author rocwon@gmail.com
+ */
+public final class XmlReader {
+	/**Thread-confined: the factory is created once per thread and reused*/
+	private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal.withInitial(XmlReader::newFactory);
+	
+	private XmlReader() {}
+	
+	private static XMLInputFactory newFactory() {
+		var result = XMLInputFactory.newFactory();
+		result.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		result.setProperty(XMLInputFactory.IS_COALESCING, false);
+		result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return result;
+	}
+	
+	/**
+	 * Stream the beans of the XML file into the consumer in order.
+	 */
+	public static void read(String resource, Consumer<Definition> consumer) {
+		try(var stream = new BufferedInputStream(new FileInputStream(resource), 1 << 16)){
+			XMLStreamReader reader = null;
+			try {
+				reader = FACTORY.get().createXMLStreamReader(stream);
+				read(reader, consumer);
+			}finally {
+				if(reader != null) reader.close();
+			}
+		}catch(IOException | XMLStreamException e) {
+			throw Panic.failed2ParseXml(resource, e);
+		}
+	}
+	
+	private static void read(XMLStreamReader reader, Consumer<Definition> consumer) throws XMLStreamException {
+		Definition bean = null;
+		Definition.Fun fun = null;
+		int args = 0, props = 0, methods = 0;
+		String section = null; //args, props or methods
+		while(reader.hasNext()) {
+			var event = reader.next();
+			if(event == XMLStreamConstants.END_ELEMENT) {
+				var tag = reader.getLocalName();
+				if("bean".equals(tag) && bean != null) {
+					if(args != 1) bean.getArgs().clear();
+					if(props != 1) bean.getProps().clear();
+					if(methods != 1) bean.getMethods().clear();
+					consumer.accept(bean);
+					bean = null;
+				}else if("method".equals(tag)) {
+					fun = null;
+				}else if(tag.equals(section)) {
+					section = null;
+				}
+				continue;
+			}
+			if(event != XMLStreamConstants.START_ELEMENT) continue;
+			var tag = reader.getLocalName();
+			if("bean".equals(tag)) {
+				if(bean != null) continue; //Nested
+				bean = new Definition(attr(reader, "id"), attr(reader, "type"), attr(reader, "singleton"));
+				args = props = methods = 0;
+				section = null;
+				continue;
+			}
+			if(bean == null) continue;
+			switch(tag) {
+				case "args":
+					args++; section = tag; break;
+				case "props":
+					props++; section = tag; break;
+				case "methods":
+					methods++; section = tag; break;
+				case "method":
+					if(!"methods".equals(section)) break;
+					fun = new Definition.Fun(attr(reader, "name"));
+					bean.getMethods().add(fun); break;
+				case "prop":
+					if(!"props".equals(section)) break;
+					bean.getProps().add(toArg(reader)); break;
+				case "arg":
+					if(fun != null) {
+						fun.getArgs().add(toArg(reader));
+					}else if("args".equals(section)) {
+						bean.getArgs().add(toArg(reader));
+					}
+					break;
+				default: break;
+			}
+		}
+	}
+	
+	private static Definition.Arg toArg(XMLStreamReader reader) {
+		return new Definition.Arg(attr(reader, "name"), attr(reader, "ref"), 
+					attr(reader, "key"), attr(reader, "val"), attr(reader, "type"));
+	}
+	
+	/**
+	 * Returns "" if the attribute is absent(as DOM does).
+	 */
+	private static String attr(XMLStreamReader reader, String name) {
+		var result = reader.getAttributeValue(null, name);
+		return result != null ? result : "";
+	}
+}
@@ -0,0 +1,27 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.Ready;
+
+@Singleton
+@Named("baker")
+public class Baker {
+	@Inject
+	@Named("oven")
+	private Oven oven;
+	@Inject
+	@Named("oven")
+	private Oven spare; //The same oven
+	private boolean baked;
+	
+	@Ready
+	public void bake() {
+		this.baked = oven.isHot();
+	}
+	
+	public boolean isBaked() {
+		return baked;
+	}
+}
@@ -0,0 +1,12 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("broken")
+public class Broken {
+	public Broken() {
+		throw new IllegalStateException("Broken");
+	}
+}
@@ -0,0 +1,8 @@
+package cn.techarts.whale.test;
+
+import cn.techarts.whale.aop.Traced;
+
+@Traced
+public interface Clock {
+	public long now();
+}
@@ -0,0 +1,21 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.AsyncProvider;
+
+@Singleton
+@Named("copilot")
+public class Copilot implements AutoCloseable {
+	@Inject
+	@Named("pilot")
+	private AsyncProvider<Pilot> pilot;
+	
+	public Pilot getPilot() {
+		return pilot.get().join();
+	}
+	
+	@Override
+	public void close() {}
+}
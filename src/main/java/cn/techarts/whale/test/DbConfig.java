@@ -0,0 +1,33 @@
+package cn.techarts.whale.test;
+
+import java.util.List;
+
+public class DbConfig {
+	private String url;
+	private int maxPoolSize;
+	private List<String> replicas;
+	
+	public String getUrl() {
+		return url;
+	}
+	
+	public void setUrl(String url) {
+		this.url = url;
+	}
+	
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+	
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+	
+	public List<String> getReplicas() {
+		return replicas;
+	}
+	
+	public void setReplicas(List<String> replicas) {
+		this.replicas = replicas;
+	}
+}
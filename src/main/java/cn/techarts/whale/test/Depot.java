@@ -0,0 +1,58 @@
+package cn.techarts.whale.test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.aop.Advice;
+
+@Singleton
+@Advice(Warehouse.class)
+@Named("depot")
+public class Depot implements Warehouse {
+	private AtomicInteger counted = new AtomicInteger();
+	private AtomicInteger priced = new AtomicInteger();
+	
+	@Override
+	public String stock(String item) {
+		counted.incrementAndGet();
+		pause(200);
+		return item + ": 100";
+	}
+	
+	@Override
+	public Integer price(String item) {
+		return item.length(); //Never called, see prices
+	}
+	
+	@Override
+	public String ship(String item) {
+		pause(200);
+		return item + " shipped";
+	}
+	
+	public Map<String, Integer> prices(List<String> items){
+		priced.incrementAndGet();
+		var result = new HashMap<String, Integer>();
+		items.forEach(item -> result.put(item, item.length() * 10));
+		return result;
+	}
+	
+	public int getPriced() {
+		return priced.get();
+	}
+	
+	public int getCounted() {
+		return counted.get();
+	}
+	
+	private static void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("chairman")
+public class Deputy extends Chairman {
+	public Deputy() {
+		this.setName("Deputy");
+	}
+}
@@ -0,0 +1,11 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("engine")
+public class Engine implements AutoCloseable {
+	@Override
+	public void close() {}
+}
@@ -0,0 +1,7 @@
+package cn.techarts.whale.test;
+
+public class Fuse {
+	public Fuse(Torch torch) {
+		throw new IllegalStateException("Blown: " + torch.getName());
+	}
+}
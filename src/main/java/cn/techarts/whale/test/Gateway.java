@@ -0,0 +1,51 @@
+package cn.techarts.whale.test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.Refresh;
+import cn.techarts.whale.Valued;
+
+@Singleton
+@Named("gateway")
+public class Gateway {
+	public enum Mode { ACTIVE, STANDBY }
+	
+	@Inject
+	@Valued(key="gateway.timeout")
+	private Duration timeout;
+	
+	@Inject
+	@Valued(key="gateway.hosts")
+	private List<Host> hosts;
+	
+	@Inject
+	@Valued(key="gateway.mode")
+	private Mode mode;
+	
+	private volatile Set<String> refreshed = Set.of();
+	
+	@Refresh
+	public void refresh(Set<String> keys) {
+		this.refreshed = keys;
+	}
+	
+	public Set<String> getRefreshed() {
+		return refreshed;
+	}
+	
+	public Duration getTimeout() {
+		return timeout;
+	}
+	
+	public List<Host> getHosts() {
+		return hosts;
+	}
+	
+	public Mode getMode() {
+		return mode;
+	}
+}
@@ -0,0 +1,8 @@
+package cn.techarts.whale.test;
+
+import cn.techarts.whale.aop.Cached;
+
+public interface Greeting {
+	@Cached
+	public String greet(String name);
+}
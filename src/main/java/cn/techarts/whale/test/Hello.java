@@ -0,0 +1,15 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.aop.Advice;
+
+@Singleton
+@Advice(Greeting.class)
+@Named("hello")
+public class Hello implements Greeting {
+	@Override
+	public String greet(String name) {
+		return "Hello " + name;
+	}
+}
@@ -0,0 +1,27 @@
+package cn.techarts.whale.test;
+
+public class Host {
+	private String name;
+	private int port;
+	
+	public Host(String name, int port) {
+		this.name = name;
+		this.port = port;
+	}
+	
+	/**
+	 * host:port
+	 */
+	public static Host parse(String value) {
+		var i = value.indexOf(':');
+		return new Host(value.substring(0, i).trim(), Integer.parseInt(value.substring(i + 1).trim()));
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getPort() {
+		return port;
+	}
+}
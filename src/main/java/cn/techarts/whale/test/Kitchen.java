@@ -0,0 +1,18 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.AsyncProvider;
+
+@Singleton
+@Named("kitchen")
+public class Kitchen {
+	@Inject
+	@Named("stove")
+	private AsyncProvider<Stove> stove;
+	
+	public AsyncProvider<Stove> getStove() {
+		return stove;
+	}
+}
@@ -1,8 +1,15 @@
 package cn.techarts.whale.test;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import cn.techarts.whale.aop.Advisor;
 
 public class LogAdvice implements Advisor {
+	public static final AtomicInteger INSTANCES = new AtomicInteger();
+	
+	public LogAdvice() {
+		INSTANCES.incrementAndGet();
+	}
+	
 	@Override
 	public Object advise(Object[] args, Object result, Throwable threw) {
 		System.out.println("Before: Intercepted");
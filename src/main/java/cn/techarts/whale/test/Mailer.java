@@ -0,0 +1,9 @@
+package cn.techarts.whale.test;
+
+import java.util.concurrent.CompletableFuture;
+import cn.techarts.whale.aop.Async;
+
+public interface Mailer {
+	@Async
+	public CompletableFuture<String> send(String to);
+}
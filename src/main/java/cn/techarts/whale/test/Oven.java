@@ -0,0 +1,21 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.Ready;
+
+@Singleton
+@Named("oven")
+public class Oven {
+	private volatile boolean hot;
+	
+	@Ready(async = true)
+	public void preheat() throws InterruptedException {
+		Thread.sleep(100);
+		this.hot = true;
+	}
+	
+	public boolean isHot() {
+		return hot;
+	}
+}
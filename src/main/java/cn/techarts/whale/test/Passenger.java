@@ -0,0 +1,20 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("passenger")
+public class Passenger implements AutoCloseable {
+	@Inject
+	@Named("pilot")
+	private Pilot pilot;
+	
+	public Pilot getPilot() {
+		return pilot;
+	}
+	
+	@Override
+	public void close() {}
+}
@@ -0,0 +1,34 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("pilot")
+public class Pilot implements AutoCloseable {
+	@Inject
+	@Named("engine")
+	private Engine engine;
+	@Inject
+	@Named("copilot")
+	private Provider<Copilot> copilot;
+	
+	public Engine getEngine() {
+		return engine;
+	}
+	
+	public Copilot getCopilot() {
+		return copilot.get();
+	}
+	
+	@Override
+	public void close() {
+		try {
+			Thread.sleep(100); //Landing
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package cn.techarts.whale.test;
+
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.aop.Advice;
+
+@Singleton
+@Advice(Mailer.class)
+@Named("postOffice")
+public class PostOffice implements Mailer {
+	@Override
+	public CompletableFuture<String> send(String to) {
+		if(to == null) {
+			throw new IllegalArgumentException("Nobody");
+		}
+		return CompletableFuture.completedFuture("Sent to " + to);
+	}
+}
@@ -0,0 +1,18 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import cn.techarts.whale.Valued;
+
+@Singleton
+@Named("repository")
+public class Repository {
+	@Inject
+	@Valued(prefix="db.primary")
+	private DbConfig primary;
+	
+	public DbConfig getPrimary() {
+		return primary;
+	}
+}
@@ -0,0 +1,17 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("secretary")
+public class Secretary {
+	@Inject
+	@Named("chairman")
+	private Chairman chairman;
+	
+	public Chairman getChairman() {
+		return chairman;
+	}
+}
@@ -2,9 +2,11 @@ package cn.techarts.whale.test;
 
 import cn.techarts.whale.Bind;
 import cn.techarts.whale.aop.Advise;
+import cn.techarts.whale.aop.Timed;
 
 @Bind(target=SomeInterfaceImpl.class)
 public interface SomeInterface {
+	@Timed("some.value")
 	@Advise(before=LogAdvice.class, after=ResultAdvice.class)
 	public int getValue();
 }
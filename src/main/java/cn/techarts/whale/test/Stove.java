@@ -0,0 +1,23 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Named("stove")
+public class Stove implements AutoCloseable {
+	private volatile boolean closed;
+	
+	public Stove() throws InterruptedException {
+		Thread.sleep(200); //Built in background
+	}
+	
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	@Override
+	public void close() {
+		this.closed = true;
+	}
+}
@@ -0,0 +1,32 @@
+package cn.techarts.whale.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Torch implements AutoCloseable {
+	public static final AtomicInteger LIT = new AtomicInteger();
+	private String name;
+	private volatile boolean closed;
+	
+	public Torch() {
+		LIT.incrementAndGet();
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	@Override
+	public void close() {
+		if(closed) return;
+		this.closed = true;
+		LIT.decrementAndGet();
+	}
+}
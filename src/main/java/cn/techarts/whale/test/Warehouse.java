@@ -0,0 +1,16 @@
+package cn.techarts.whale.test;
+
+import cn.techarts.whale.aop.Batched;
+import cn.techarts.whale.aop.Bulkhead;
+import cn.techarts.whale.aop.Singleflight;
+
+public interface Warehouse {
+	@Singleflight
+	public String stock(String item);
+	
+	@Batched(bulk = "prices", linger = 50)
+	public Integer price(String item);
+	
+	@Bulkhead(value = "shipping", limit = 2)
+	public String ship(String item);
+}
@@ -0,0 +1,13 @@
+package cn.techarts.whale.test;
+
+import javax.inject.Named;
+import cn.techarts.whale.aop.Advice;
+
+@Advice(Clock.class)
+@Named("watch")
+public class Watch implements Clock {
+	@Override
+	public long now() {
+		return System.currentTimeMillis();
+	}
+}
@@ -1,8 +1,38 @@
 package cn.techarts.whale.test;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javax.servlet.ServletContext;
+import javax.tools.ToolProvider;
 import org.junit.Test;
 import cn.techarts.whale.Context;
+import cn.techarts.whale.Panic;
+import cn.techarts.whale.aop.AopHandler;
+import cn.techarts.whale.aop.Weaver;
+import cn.techarts.whale.core.Definition;
+import cn.techarts.whale.core.Descriptor;
+import cn.techarts.whale.core.XmlReader;
+import cn.techarts.whale.util.BeanCodec;
+import cn.techarts.whale.util.Hotpot;
+import cn.techarts.whale.util.Ini;
+import cn.techarts.whale.util.Sources;
 import junit.framework.TestCase;
 
 public class WhaleTest {
@@ -118,4 +148,784 @@ public class WhaleTest {
 		
 		TestCase.assertEquals(133, result);
 	}
-}
\ No newline at end of file
+	
+	//@Test
+	public void testTimedIntercept() {
+		var ctx = Context.make();
+		ctx.getBinder().register(SomeInterfaceImpl.class);
+		ctx.start();
+		
+		var service = ctx.get(SomeInterface.class);
+		for(int i = 0; i < 100; i++) service.getValue();
+		var timing = ctx.getTiming("some.value");
+		ctx.close();
+		
+		TestCase.assertEquals(100, timing.getCalls());
+		TestCase.assertEquals(0, timing.getErrors());
+		TestCase.assertTrue(timing.percentile(99) >= timing.percentile(50));
+	}
+	
+	//@Test
+	public void testAdvisorInstancedOnce() {
+		var ctx = Context.make();
+		ctx.getBinder().register(SomeInterfaceImpl.class);
+		ctx.start();
+		
+		var service = ctx.get(SomeInterface.class);
+		var before = LogAdvice.INSTANCES.get();
+		for(int i = 0; i < 100; i++) service.getValue();
+		var instanced = LogAdvice.INSTANCES.get() - before;
+		ctx.close();
+		
+		TestCase.assertEquals(1, instanced);
+	}
+	
+	//@Test
+	public void testAsyncFailures() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(PostOffice.class);
+		ctx.start();
+		
+		var mailer = ctx.get("postOffice", Mailer.class);
+		var sent = mailer.send("Tom").get(5, TimeUnit.SECONDS);
+		Exception error = null;
+		try {
+			mailer.send(null).get(5, TimeUnit.SECONDS);
+		}catch(ExecutionException e) {
+			error = e;
+		}
+		var failed = ctx.getDispatcher().getFailed();
+		ctx.close();
+		
+		TestCase.assertEquals("Sent to Tom", sent);
+		TestCase.assertTrue(error.getCause() instanceof IllegalArgumentException);
+		TestCase.assertEquals(1, failed);
+	}
+	
+	//@Test
+	public void testTracedPrototypes() {
+		var ctx = Context.make();
+		ctx.getBinder().register(Watch.class);
+		ctx.start();
+		
+		for(int i = 0; i < 100; i++) {
+			ctx.get("watch", Clock.class).now(); //A new instance per get
+		}
+		var first = ctx.get("watch", Clock.class);
+		var second = ctx.get("watch", Clock.class);
+		var traces = ctx.getTraces(1000);
+		ctx.close();
+		
+		var weaver = new Weaver(null);
+		for(int i = 0; i < 100; i++) {
+			var clock = (Clock)AopHandler.create(new Watch(), Clock.class, weaver);
+			clock.now();
+		}
+		var size = weaver.getTracer().size();
+		weaver.close();
+		
+		TestCase.assertNotSame(first, second);
+		TestCase.assertEquals(100, traces.size());
+		TestCase.assertEquals(1, size);
+	}
+	
+	//@Test
+	public void testSingleflight() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(Depot.class);
+		ctx.start();
+		
+		var depot = ctx.get("depot", Warehouse.class);
+		var calls = concurrently(4, i -> depot.stock("apple"));
+		var counted = ((Depot)AopHandler.unwrap(depot)).getCounted();
+		ctx.close();
+		
+		TestCase.assertEquals(1, counted);
+		calls.forEach(v -> TestCase.assertEquals("apple: 100", v));
+	}
+	
+	//@Test
+	public void testBatchedCalls() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(Depot.class);
+		ctx.start();
+		
+		var depot = ctx.get("depot", Warehouse.class);
+		var prices = concurrently(8, i -> depot.price("item" + i));
+		var priced = ((Depot)AopHandler.unwrap(depot)).getPriced();
+		ctx.close();
+		
+		prices.forEach(v -> TestCase.assertEquals(50, v.intValue()));
+		TestCase.assertTrue(priced < 8); //Coalesced
+	}
+	
+	//@Test
+	public void testBulkheadRejects() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(Depot.class);
+		ctx.start();
+		
+		var depot = ctx.get("depot", Warehouse.class);
+		var shipped = concurrently(4, i -> {
+			try {
+				return depot.ship("box");
+			}catch(Panic e) {
+				return "rejected";
+			}
+		});
+		var limiter = ctx.getLimiters().get("shipping");
+		var rejected = limiter.getRejected();
+		var inflight = limiter.getInflight();
+		ctx.close();
+		
+		TestCase.assertEquals(2, shipped.stream().filter("box shipped"::equals).count());
+		TestCase.assertEquals(2, rejected);
+		TestCase.assertEquals(0, inflight);
+	}
+	
+	//@Test
+	public void testCacheKeyOfTargets() {
+		var ctx = Context.make();
+		ctx.getBinder().register(Hello.class, Welcome.class);
+		ctx.start();
+		
+		var hello = ctx.get("hello", Greeting.class);
+		var welcome = ctx.get("welcome", Greeting.class);
+		var first = hello.greet("Tom");
+		var second = welcome.greet("Tom");
+		var again = hello.greet("Tom");
+		var misses = ctx.getCache(Greeting.class.getName() + ".greet").getMisses();
+		ctx.close();
+		
+		TestCase.assertEquals("Hello Tom", first);
+		TestCase.assertEquals("Welcome Tom", second);
+		TestCase.assertEquals("Hello Tom", again);
+		TestCase.assertEquals(2, misses);
+	}
+	
+	//@Test
+	public void testConverterRegistry() {
+		var ctx = Context.make(Map.of("gateway.timeout", "5s", "gateway.mode", "STANDBY", 
+									  "gateway.hosts", "alpha:80, beta:8080"));
+		ctx.getBinder().convert(Host.class, Host::parse).register(Gateway.class);
+		ctx.start();
+		
+		var gateway = ctx.get("gateway", Gateway.class);
+		var hosts = gateway.getHosts();
+		ctx.close();
+		
+		TestCase.assertEquals(Duration.ofSeconds(5), gateway.getTimeout());
+		TestCase.assertEquals(Gateway.Mode.STANDBY, gateway.getMode());
+		TestCase.assertEquals(2, hosts.size());
+		TestCase.assertEquals("beta", hosts.get(1).getName());
+		TestCase.assertEquals(8080, hosts.get(1).getPort());
+	}
+	
+	//@Test
+	public void testReloadConfigs() throws Exception {
+		var configs = Map.of("gateway.timeout", "5s", "gateway.mode", "STANDBY", "gateway.hosts", "alpha:80");
+		var ctx = Context.make(configs);
+		ctx.getBinder().convert(Host.class, Host::parse).register(Gateway.class);
+		ctx.start();
+		var gateway = ctx.get("gateway", Gateway.class);
+		
+		var changed = ctx.reload(Map.of("gateway.timeout", "10s", "gateway.mode", "STANDBY", "gateway.hosts", "alpha:80"));
+		var timeout = gateway.getTimeout();
+		var refreshed = gateway.getRefreshed();
+		
+		Exception error = null;
+		try { //A bad timeout
+			ctx.reload(Map.of("gateway.timeout", "soon", "gateway.mode", "ACTIVE", "gateway.hosts", "alpha:80"));
+		}catch(Panic e) {
+			error = e;
+		}
+		var mode = gateway.getMode();
+		var config = ctx.getConfig("gateway.mode");
+		ctx.close();
+		
+		TestCase.assertEquals(Set.of("gateway.timeout"), changed);
+		TestCase.assertEquals(Duration.ofSeconds(10), timeout);
+		TestCase.assertEquals(Set.of("gateway.timeout"), refreshed);
+		TestCase.assertNotNull(error);
+		TestCase.assertEquals(Gateway.Mode.STANDBY, mode); //Nothing applied
+		TestCase.assertEquals("STANDBY", config);
+	}
+	
+	//@Test
+	public void testWatchConfigFile() throws Exception {
+		var file = Files.createTempFile("whale", ".properties");
+		Files.writeString(file, "gateway.timeout=5s\ngateway.mode=STANDBY\ngateway.hosts=alpha:80\n");
+		var ctx = Context.make(file.toString());
+		ctx.getBinder().convert(Host.class, Host::parse).register(Gateway.class);
+		ctx.start();
+		ctx.watch();
+		var gateway = ctx.get("gateway", Gateway.class);
+		
+		Thread.sleep(300); //A new modified time
+		Files.writeString(file, "gateway.timeout=5s\ngateway.mode=ACTIVE\ngateway.hosts=alpha:80\n");
+		for(int i = 0; i < 50 && gateway.getMode() != Gateway.Mode.ACTIVE; i++) {
+			Thread.sleep(100);
+		}
+		var mode = gateway.getMode();
+		ctx.close();
+		Files.delete(file);
+		
+		TestCase.assertEquals(Gateway.Mode.ACTIVE, mode);
+	}
+	
+	//@Test
+	public void testLayeredSources() throws Exception {
+		var file = Files.createTempFile("whale", ".properties");
+		Files.writeString(file, "db.host=prod\ndb.url=jdbc:${db.host}:${db.port:3306}/${db.name}\n");
+		var sources = Sources.of(Map.of("db.host", "localhost", "db.name", "whale"))
+							 .file(file.toString())
+							 .map(Map.of("db.name", "orca"));
+		var configs = sources.resolve();
+		var verbatim = new Sources().properties(file.toString()).verbatim().resolve();
+		var circle = Sources.of(Map.of("a", "${b}", "b", "${a}"));
+		Exception error = null;
+		try {
+			circle.resolve();
+		}catch(Panic e) {
+			error = e;
+		}
+		Files.delete(file);
+		
+		TestCase.assertEquals("jdbc:prod:3306/orca", configs.get("db.url")); //The later layer wins
+		TestCase.assertEquals("jdbc:${db.host}:${db.port:3306}/${db.name}", verbatim.get("db.url"));
+		TestCase.assertEquals(List.of(file.toString()), sources.getFiles());
+		TestCase.assertNotNull(error);
+	}
+	
+	//@Test
+	public void testBindPrefix() {
+		var ctx = Context.make(Map.of("db.primary.url", "jdbc:h2:mem", "db.primary.max-pool-size", "8", 
+									  "db.primary.replicas", "r1,r2", "db.secondary.url", "jdbc:h2:file"));
+		ctx.getBinder().register(Repository.class);
+		ctx.start();
+		var repository = ctx.get("repository", Repository.class);
+		var before = repository.getPrimary();
+		
+		ctx.reload(Map.of("db.primary.url", "jdbc:h2:mem", "db.primary.MAX_POOL_SIZE", "16", 
+						  "db.primary.replicas", "r1,r2", "db.secondary.url", "jdbc:h2:file"));
+		var after = repository.getPrimary();
+		ctx.close();
+		
+		TestCase.assertEquals("jdbc:h2:mem", before.getUrl()); //Not the secondary
+		TestCase.assertEquals(8, before.getMaxPoolSize()); //Relaxed key
+		TestCase.assertEquals(List.of("r1", "r2"), before.getReplicas());
+		TestCase.assertEquals(16, after.getMaxPoolSize()); //Bound again
+	}
+	
+	//@Test
+	public void testBeanCodec() {
+		var chairman = new Chairman();
+		chairman.setId(1);
+		chairman.setAge(78);
+		chairman.setName("Trump");
+		var dumped = Hotpot.dump(chairman);
+		
+		var copy = new Chairman();
+		Hotpot.fill(copy, Map.of("id", 2, "age", 81, "name", "Biden", "unknown", "ignored"));
+		var created = BeanCodec.of(Chairman.class).create(dumped);
+		
+		TestCase.assertEquals(1, dumped.get("id"));
+		TestCase.assertEquals(78, dumped.get("age"));
+		TestCase.assertEquals("Trump", dumped.get("name"));
+		TestCase.assertTrue(dumped.containsKey("gender"));
+		TestCase.assertNull(dumped.get("gender"));
+		TestCase.assertEquals(81, copy.getAge()); //Unboxed into the primitive setter
+		TestCase.assertEquals("Biden", copy.getName());
+		TestCase.assertEquals("Trump", created.getName());
+		TestCase.assertEquals(78, created.getAge());
+	}
+	
+	//@Test
+	public void testBatchCodec() {
+		var codec = BeanCodec.of(Chairman.class);
+		var rows = new ArrayList<Map<String, Object>>();
+		for(int i = 0; i < 5000; i++) { //Split across the pool
+			rows.add(Map.of("id", i, "name", "C" + i));
+		}
+		var beans = codec.fillAll(rows);
+		var dumped = codec.dumpAll(beans);
+		var streamed = codec.dumpAll(beans.parallelStream()).mapToInt(m -> (Integer)m.get("id")).sum();
+		var names = new ArrayList<Object>();
+		codec.dumpEach(beans.subList(0, 3), row -> names.add(row.get("name")));
+		
+		TestCase.assertEquals(5000, beans.size());
+		TestCase.assertEquals(4321, beans.get(4321).getId()); //In order
+		TestCase.assertEquals("C4321", dumped.get(4321).get("name"));
+		TestCase.assertEquals(4999 * 5000 / 2, streamed);
+		TestCase.assertEquals(List.of("C0", "C1", "C2"), names);
+		TestCase.assertTrue(codec.fillAll(List.<Map<String, Object>>of()).isEmpty());
+	}
+	
+	//@Test
+	public void testParseIni() throws Exception {
+		var ini = Files.createTempFile("whale", ".ini");
+		Files.writeString(ini, "# comment\r\nzone = +86\r\nbuild.name=Lib\\\\\nrary\n[user]\nid = 45\nname=\n");
+		var flat = Ini.parse(ini.toString());
+		var sections = Ini.parse(ini.toString(), true);
+		Files.writeString(ini, "zone = +1\n"); //Not locked after parsing
+		var changed = Ini.parse(ini.toString());
+		Files.delete(ini);
+		
+		TestCase.assertEquals(Map.of("zone", "+86", "build.name", "Library", "id", "45"), flat);
+		TestCase.assertEquals("45", sections.get("user.id"));
+		TestCase.assertFalse(sections.containsKey("user.name"));
+		TestCase.assertEquals(Map.of("zone", "+1"), changed);
+	}
+	
+	//@Test
+	public void testStreamXml() throws Exception {
+		var xml = Files.createTempFile("whale", ".xml");
+		Files.writeString(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><beans>" + 
+			"<bean id=\"party\" singleton=\"true\" type=\"cn.techarts.whale.test.Party\">" + 
+			"<args><arg val=\"333\" type=\"int\"/></args>" + 
+			"<props><prop name=\"chairman\" ref=\"chairman\"/></props>" + 
+			"<methods><method name=\"setMemebers\"><arg val=\"1000\" type=\"int\"/></method></methods></bean>" + 
+			"<bean id=\"chairman\" type=\"cn.techarts.whale.test.Chairman\">" + 
+			"<props><prop name=\"name\" val=\"Trump\"/></props><props><prop name=\"age\" val=\"78\"/></props></bean>" + 
+			"</beans>");
+		var beans = new ArrayList<Definition>();
+		XmlReader.read(xml.toString(), beans::add);
+		Files.delete(xml);
+		
+		var party = beans.get(0);
+		TestCase.assertEquals(2, beans.size());
+		TestCase.assertEquals("party", party.getId());
+		TestCase.assertEquals("true", party.getSingleton());
+		TestCase.assertEquals("333", party.getArgs().get(0).getVal());
+		TestCase.assertEquals("chairman", party.getProps().get(0).getRef());
+		TestCase.assertEquals("", party.getProps().get(0).getKey()); //Absent as DOM
+		TestCase.assertEquals("setMemebers", party.getMethods().get(0).getName());
+		TestCase.assertEquals("1000", party.getMethods().get(0).getArgs().get(0).getVal());
+		TestCase.assertEquals("", beans.get(1).getSingleton());
+		TestCase.assertTrue(beans.get(1).getProps().isEmpty()); //Taken only if it appears ONCE
+	}
+	
+	//@Test
+	public void testParseXmlFiles() throws Exception {
+		var leaders = Files.createTempFile("whale", ".xml");
+		var parties = Files.createTempFile("whale", ".xml");
+		var chairman = "<beans><bean id=\"chairman\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+					   "<props><prop name=\"name\" val=\"Trump\"/></props></bean></beans>";
+		Files.writeString(leaders, chairman);
+		Files.writeString(parties, "<beans><bean id=\"party\" singleton=\"true\" type=\"cn.techarts.whale.test.Party\">" + 
+				   "<args><arg val=\"333\" type=\"int\"/></args><props><prop name=\"chairman\" ref=\"chairman\"/></props></bean></beans>");
+		var ctx = Context.make(CFG);
+		ctx.getLoader().parse(new String[] {parties.toString(), leaders.toString()}); //Referred across files
+		ctx.start();
+		var party = ctx.get("party", Party.class);
+		ctx.close();
+		
+		Files.writeString(parties, chairman);
+		var duplicated = Context.make();
+		Exception error = null;
+		try {
+			duplicated.getLoader().parse(new String[] {leaders.toString(), parties.toString()});
+		}catch(Panic e) {
+			error = e;
+		}
+		duplicated.close();
+		Files.delete(leaders);
+		Files.delete(parties);
+		
+		TestCase.assertEquals(333, party.getId());
+		TestCase.assertEquals("Trump", party.getChairman().getName());
+		TestCase.assertNotNull(error);
+	}
+	
+	//@Test
+	public void testReloadRewiresModules() throws Exception {
+		var xml = Files.createTempFile("whale", ".xml");
+		var bean = "<beans><bean id=\"chairman\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+				   "<props><prop name=\"name\" val=\"%s\"/></props></bean></beans>";
+		Files.writeString(xml, String.format(bean, "Trump"));
+		var ctx = Context.make(CFG);
+		ctx.getLoader().parse(xml.toString());
+		var office = ctx.module("office");
+		office.getBinder().register(Secretary.class);
+		ctx.start();
+		var before = office.get("secretary", Secretary.class);
+		TestCase.assertEquals("Trump", before.getChairman().getName());
+		
+		Files.writeString(xml, String.format(bean, "Biden"));
+		var reloaded = ctx.reloadBeans(xml.toString());
+		var after = office.get("secretary", Secretary.class);
+		var chairman = ctx.get("chairman", Chairman.class);
+		ctx.close();
+		Files.delete(xml);
+		TestCase.assertTrue(reloaded.contains("chairman"));
+		TestCase.assertEquals("Trump", before.getChairman().getName());
+		TestCase.assertEquals("Biden", after.getChairman().getName());
+		TestCase.assertSame(chairman, after.getChairman());
+	}
+	
+	//@Test
+	public void testReloadAtomically() throws Exception {
+		var xml = Files.createTempFile("whale", ".xml");
+		var bean = "<beans><bean id=\"chairman\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+				   "<props><prop name=\"name\" val=\"Trump\"/><prop name=\"age\" val=\"%s\"/></props></bean>" + 
+				   "<bean id=\"party\" singleton=\"true\" type=\"cn.techarts.whale.test.Party\">" + 
+				   "<args><arg val=\"333\" type=\"int\"/></args><props><prop name=\"chairman\" ref=\"chairman\"/></props></bean></beans>";
+		Files.writeString(xml, String.format(bean, "78"));
+		var ctx = Context.make(CFG);
+		ctx.getLoader().parse(xml.toString());
+		ctx.start();
+		var party = ctx.get("party", Party.class);
+		
+		Files.writeString(xml, String.format(bean, "old")); //Not a number
+		Exception error = null;
+		try {
+			ctx.reloadBeans(xml.toString());
+		}catch(Panic e) {
+			error = e;
+		}
+		var unchanged = ctx.get("party", Party.class);
+		var chairman = ctx.get("chairman", Chairman.class);
+		ctx.close();
+		Files.delete(xml);
+		TestCase.assertNotNull(error);
+		TestCase.assertSame(party, unchanged);
+		TestCase.assertSame(party.getChairman(), chairman);
+		TestCase.assertEquals(78, chairman.getAge());
+	}
+	
+	//@Test
+	public void testDescriptorRoundTrip() throws Exception {
+		var xml = Files.createTempFile("whale", ".xml");
+		var bin = Files.createTempFile("whale", ".bin");
+		var bean = "<beans><bean id=\"chairman\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+				   "<props><prop name=\"name\" val=\"%s\"/><prop name=\"age\" val=\"78\"/></props></bean>" + 
+				   "<bean id=\"party\" singleton=\"true\" type=\"cn.techarts.whale.test.Party\">" + 
+				   "<args><arg val=\"333\" type=\"int\"/></args><props><prop name=\"name\" key=\"party.name\"/>" + 
+				   "<prop name=\"chairman\" ref=\"chairman\"/></props></bean></beans>";
+		Files.writeString(xml, String.format(bean, "Trump"));
+		Descriptor.compile(bin.toString(), xml.toString());
+		var sources = Descriptor.sourcesOf(bin.toString());
+		var ctx = Context.make(CFG);
+		ctx.getLoader().restore(bin.toString());
+		ctx.start();
+		var party = ctx.get("party", Party.class);
+		ctx.close();
+		
+		Files.writeString(xml, String.format(bean, "Biden"));
+		var stale = Descriptor.load(bin.toString());
+		ctx = Context.make(CFG);
+		ctx.getLoader().restore(bin.toString()); //Parse the XML and compile again
+		ctx.start();
+		var chairman = ctx.get("chairman", Chairman.class);
+		ctx.close();
+		var fresh = Descriptor.load(bin.toString());
+		Files.delete(xml);
+		Files.delete(bin);
+		
+		TestCase.assertEquals(List.of(xml.toString()), List.of(sources));
+		TestCase.assertEquals(333, party.getId());
+		TestCase.assertEquals("Republic", party.getName());
+		TestCase.assertEquals(78, party.getChairman().getAge());
+		TestCase.assertEquals("Trump", party.getChairman().getName());
+		TestCase.assertNull(stale);
+		TestCase.assertEquals("Biden", chairman.getName());
+		TestCase.assertEquals(2, fresh.get(0).size());
+	}
+	
+	//@Test
+	public void testDiscardFailedReload() throws Exception {
+		var xml = Files.createTempFile("whale", ".xml");
+		var torch = "<bean id=\"torch\" singleton=\"true\" type=\"cn.techarts.whale.test.Torch\">" + 
+					"<props><prop name=\"name\" val=\"%s\"/></props></bean>";
+		var fuse = "<bean id=\"fuse\" singleton=\"true\" type=\"cn.techarts.whale.test.Fuse\">" + 
+				   "<args><arg ref=\"torch\" type=\"cn.techarts.whale.test.Torch\"/></args></bean>";
+		Files.writeString(xml, "<beans>" + String.format(torch, "Olympic") + "</beans>");
+		var ctx = Context.make();
+		ctx.getLoader().parse(xml.toString());
+		ctx.start();
+		var live = ctx.get("torch", Torch.class);
+		var lit = Torch.LIT.get();
+		
+		Files.writeString(xml, "<beans>" + String.format(torch, "Paralympic") + fuse + "</beans>");
+		Exception error = null;
+		try {
+			ctx.reloadBeans(xml.toString());
+		}catch(Panic e) {
+			error = e;
+		}
+		var discarded = Torch.LIT.get() == lit; //The new torch was built and closed
+		var unchanged = ctx.get("torch", Torch.class);
+		ctx.close();
+		Files.delete(xml);
+		TestCase.assertNotNull(error);
+		TestCase.assertTrue(discarded);
+		TestCase.assertSame(live, unchanged);
+		TestCase.assertEquals("Olympic", unchanged.getName());
+	}
+	
+	//@Test
+	public void testRestoreAndReload() throws Exception {
+		var leaders = Files.createTempFile("whale", ".xml");
+		var parties = Files.createTempFile("whale", ".xml");
+		var bin = Files.createTempFile("whale", ".bin");
+		var bean = "<beans><bean id=\"chairman\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+				   "<props><prop name=\"name\" val=\"%s\"/><prop name=\"age\" val=\"78\"/></props></bean>" + 
+				   "<bean id=\"vice\" singleton=\"true\" type=\"cn.techarts.whale.test.Chairman\">" + 
+				   "<props><prop name=\"name\" val=\"Vance\"/></props></bean></beans>";
+		Files.writeString(leaders, String.format(bean, "Trump"));
+		Files.writeString(parties, "<beans><bean id=\"party\" singleton=\"true\" type=\"cn.techarts.whale.test.Party\">" + 
+				   "<args><arg val=\"333\" type=\"int\"/></args><props><prop name=\"chairman\" ref=\"chairman\"/></props></bean></beans>");
+		Descriptor.compile(bin.toString(), leaders.toString(), parties.toString());
+		var ctx = Context.make(CFG);
+		ctx.getLoader().restore(bin.toString());
+		ctx.start();
+		var before = ctx.get("party", Party.class);
+		var vice = ctx.get("vice", Chairman.class);
+		
+		Files.writeString(leaders, String.format(bean, "Biden"));
+		var reloaded = ctx.reloadBeans(leaders.toString());
+		var after = ctx.get("party", Party.class);
+		var unchanged = ctx.get("vice", Chairman.class);
+		ctx.close();
+		Files.delete(leaders);
+		Files.delete(parties);
+		Files.delete(bin);
+		TestCase.assertEquals("Trump", before.getChairman().getName());
+		TestCase.assertEquals(Set.of("chairman", "party"), reloaded);
+		TestCase.assertEquals("Biden", after.getChairman().getName());
+		TestCase.assertEquals(78, after.getChairman().getAge());
+		TestCase.assertSame(vice, unchanged);
+	}
+	
+	//@Test
+	public void testModuleDelegation() {
+		var ctx = Context.make();
+		ctx.getBinder().register(Deputy.class);
+		var office = ctx.module("office");
+		office.getBinder().register(Secretary.class);
+		ctx.start();
+		
+		var secretary = office.get("secretary", Secretary.class);
+		var chairman = ctx.get("chairman", Chairman.class);
+		var imported = office.get("chairman", Chairman.class);
+		var local = ctx.silent("secretary");
+		ctx.close();
+		
+		TestCase.assertSame(chairman, secretary.getChairman());
+		TestCase.assertSame(chairman, imported); //Delegated to the parent
+		TestCase.assertNull(local); //The parent can't see the module
+		Exception error = null;
+		try {
+			office.get("secretary");
+		}catch(Panic e) {
+			error = e;
+		}
+		TestCase.assertNotNull(error); //Not a NullPointerException
+		TestCase.assertNull(ctx.silent("chairman"));
+		error = null;
+		try {
+			ctx.ready();
+		}catch(Panic e) {
+			error = e;
+		}
+		TestCase.assertNotNull(error);
+	}
+	
+	//@Test
+	public void testBlueGreenAcquire() throws Exception {
+		var servlet = servletContext();
+		var blue = Context.make();
+		blue.getBinder().register(Deputy.class);
+		blue.start();
+		blue.cache(servlet);
+		
+		var user = Context.acquire(servlet);
+		var green = blue.replace(servlet, () -> {
+			var result = Context.make();
+			result.getBinder().register(Deputy.class);
+			return result;
+		}).get(5, TimeUnit.SECONDS);
+		var serving = user.get("chairman") != null; //Not closed until released
+		user.release();
+		var current = Context.acquire(servlet);
+		current.release();
+		var retired = blue.acquire();
+		
+		green.shutdown();
+		var closed = CompletableFuture.supplyAsync(() -> Context.acquire(servlet)).get(5, TimeUnit.SECONDS);
+		
+		TestCase.assertSame(blue, user);
+		TestCase.assertTrue(serving);
+		TestCase.assertSame(green, current);
+		TestCase.assertFalse(retired);
+		TestCase.assertNull(closed); //Shut down rather than replaced
+	}
+	
+	/**
+	 * Start the calls at the same time and wait for their results.
+	 */
+	private static <T> List<T> concurrently(int n, IntFunction<T> call) throws Exception {
+		var gate = new CountDownLatch(1);
+		var executor = Executors.newFixedThreadPool(n);
+		var futures = new ArrayList<CompletableFuture<T>>();
+		for(int i = 0; i < n; i++) {
+			var k = i;
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					gate.await();
+				}catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return call.apply(k);
+			}, executor));
+		}
+		gate.countDown();
+		var result = new ArrayList<T>(n);
+		try {
+			for(var future : futures) {
+				result.add(future.get(5, TimeUnit.SECONDS));
+			}
+		}finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+	
+	private static ServletContext servletContext() {
+		var attributes = new ConcurrentHashMap<String, Object>();
+		return (ServletContext)Proxy.newProxyInstance(WhaleTest.class.getClassLoader(), 
+			new Class<?>[] {ServletContext.class}, (proxy, method, args) -> {
+				switch(method.getName()) {
+					case "getAttribute": return attributes.get(args[0]);
+					case "setAttribute": attributes.put((String)args[0], args[1]); return null;
+					case "removeAttribute": attributes.remove(args[0]); return null;
+					default: return null;
+				}
+			});
+	}
+	
+	//@Test
+	public void testAppendReport() {
+		var ctx = Context.make();
+		ctx.start();
+		var waiting = ctx.append(Secretary.class);
+		var absent = ctx.silent("secretary");
+		var wired = ctx.append(Deputy.class);
+		var secretary = ctx.get("secretary", Secretary.class);
+		Exception error = null;
+		try {
+			ctx.append(Broken.class);
+		}catch(Panic e) {
+			error = e;
+		}
+		ctx.close();
+		TestCase.assertEquals(Map.of("secretary", Set.of("chairman")), waiting);
+		TestCase.assertNull(absent);
+		TestCase.assertTrue(wired.isEmpty());
+		TestCase.assertEquals("Deputy", secretary.getChairman().getName());
+		TestCase.assertNotNull(error);
+	}
+	
+	//@Test
+	public void testShutdownOrder() {
+		var ctx = Context.make();
+		ctx.getBinder().register(Engine.class, Pilot.class, Copilot.class, Passenger.class);
+		ctx.start();
+		var passenger = ctx.get("passenger", Passenger.class);
+		TestCase.assertSame(passenger.getPilot(), passenger.getPilot().getCopilot().getPilot());
+		var report = ctx.shutdown();
+		var closed = report.getClosed();
+		TestCase.assertTrue(report.isClean());
+		TestCase.assertEquals(4, closed.size());
+		TestCase.assertEquals("passenger", closed.get(0));
+		TestCase.assertEquals(Set.of("pilot", "copilot"), Set.copyOf(closed.subList(1, 3)));
+		TestCase.assertEquals("engine", closed.get(3)); //After the circle
+	}
+	
+	//@Test
+	public void testReadinessPropagation() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(Oven.class, Baker.class);
+		var ready = ctx.startAsync();
+		var baker = ctx.get("baker", Baker.class);
+		ready.get(5, TimeUnit.SECONDS);
+		var oven = ctx.ready("oven").isDone();
+		ctx.close();
+		TestCase.assertTrue(oven);
+		TestCase.assertTrue(baker.isBaked()); //Baked after the oven is hot
+	}
+	
+	//@Test
+	public void testAsyncProvider() throws Exception {
+		var ctx = Context.make();
+		ctx.getBinder().register(Stove.class, Kitchen.class);
+		ctx.start();
+		var kitchen = ctx.get("kitchen", Kitchen.class);
+		var stove = kitchen.getStove().get().get(5, TimeUnit.SECONDS);
+		var managed = ctx.get("stove");
+		ctx.close();
+		TestCase.assertSame(stove, managed);
+		TestCase.assertTrue(stove.isClosed());
+		
+		ctx = Context.make(); //Closed while building
+		ctx.getBinder().register(Stove.class, Kitchen.class);
+		ctx.start();
+		var future = ctx.get("kitchen", Kitchen.class).getStove().get();
+		TestCase.assertFalse(future.isDone());
+		ctx.close();
+		TestCase.assertTrue(future.isDone());
+		TestCase.assertTrue(future.get().isClosed());
+	}
+	
+	//@Test
+	public void testUnloadPluginWithEnum() throws Exception {
+		var jar = compilePlugin("Lamp", "package plugin;\n" + 
+				"@javax.inject.Singleton @javax.inject.Named(\"lamp\") public class Lamp {\n" + 
+				"  public enum Color { RED, GREEN }\n" + 
+				"  @javax.inject.Inject @cn.techarts.whale.Valued(val = \"GREEN\") private Color color;\n" + 
+				"  @javax.inject.Inject @cn.techarts.whale.Valued(val = \"RED, GREEN\") private java.util.List<Color> colors;\n" + 
+				"  public String toString() { return color + \"\" + colors; }\n}");
+		var ctx = Context.make();
+		var module = ctx.module("plugin", jar.toString());
+		ctx.start();
+		var lamp = module.get("lamp");
+		TestCase.assertEquals("GREEN[RED, GREEN]", lamp.toString());
+		var loader = new WeakReference<>(lamp.getClass().getClassLoader());
+		lamp = null;
+		module.close();
+		module = null;
+		for(int i = 0; i < 50 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		ctx.close();
+		Files.delete(jar);
+		TestCase.assertNull(loader.get());
+	}
+	
+	/**
+	 * Compile the source into a JAR file in the temporary directory.
+	 */
+	private static Path compilePlugin(String name, String source) throws Exception {
+		var dir = Files.createTempDirectory("whale");
+		var file = dir.resolve(name + ".java");
+		Files.writeString(file, source);
+		var cp = System.getProperty("java.class.path");
+		var javac = ToolProvider.getSystemJavaCompiler();
+		var code = javac.run(null, null, null, "-cp", cp, "-d", dir.toString(), file.toString());
+		TestCase.assertEquals(0, code);
+		var result = Files.createTempFile("plugin", ".jar");
+		try(var out = new JarOutputStream(Files.newOutputStream(result));
+			var classes = Files.walk(dir)) {
+			for(var c : (Iterable<Path>)classes.filter(f -> f.toString().endsWith(".class"))::iterator) {
+				out.putNextEntry(new JarEntry(dir.relativize(c).toString().replace('\\', '/')));
+				out.write(Files.readAllBytes(c));
+				out.closeEntry();
+			}
+		}
+		try(var files = Files.walk(dir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * A reusable converter between a bean and a map. The accessor table(public getters 
+ * and setters) is computed ONCE per class and the accessors are generated via the 
+ * LambdaMetafactory, so {@link #fill(Object, Map)} and {@link #dump(Object)} do no 
+ * reflection lookups. The batch APIs(dumpAll, fillAll and dumpEach) share the table
+ * and split a large list across a fork-join pool. It's thread-safe, see {@link Hotpot#fill}
+ * 
+ * @author rocwon@gmail.com
+ */
+public final class BeanCodec<T> {
+	private Class<T> clazz;
+	private int capacity;
+	private String[] names; //Getters
+	private List<Function<Object, Object>> getters;
+	private Setter[] setters;
+	private volatile Supplier<Object> constructor;
+	
+	/**A batch larger than it is split across the fork-join pool*/
+	private static final int THRESHOLD = 1024;
+	
+	private static final ClassValue<BeanCodec<?>> CODECS = new ClassValue<>() {
+		@Override
+		protected BeanCodec<?> computeValue(Class<?> type) {
+			return new BeanCodec<>(type);
+		}
+	};
+	
+	private static class Setter {
+		String name;
+		Class<?> type; //Boxed
+		BiConsumer<Object, Object> accessor;
+		Setter next; //Overloaded
+		
+		Setter find(Object value) {
+			for(var s = this; s != null; s = s.next) {
+				if(s.type.isInstance(value)) return s;
+			}
+			return this;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static<T> BeanCodec<T> of(Class<T> clazz){
+		return (BeanCodec<T>)CODECS.get(clazz);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private BeanCodec(Class<T> clazz) {
+		this.clazz = clazz;
+		var names = new ArrayList<String>();
+		var getters = new ArrayList<Function<Object, Object>>();
+		var setters = new LinkedHashMap<String, Setter>();
+		var lookup = lookupOf(clazz);
+		for(var m : clazz.getMethods()) {
+			var name = m.getName();
+			if(Hotpot.isGetter(name) && m.getParameterCount() == 0) {
+				if(name.length() <= (name.startsWith("is") ? 2 : 3)) continue;
+				names.add(Hotpot.toFieldName(name));
+				getters.add(getterOf(lookup, m));
+			}else if(name.startsWith("set") && m.getParameterCount() == 1) {
+				if(name.length() <= 3) continue;
+				var s = new Setter();
+				s.name = Hotpot.toFieldName(name);
+				s.type = MethodType.methodType(m.getParameterTypes()[0]).wrap().returnType();
+				s.accessor = setterOf(lookup, m);
+				s.next = setters.put(s.name, s);
+			}
+		}
+		this.names = names.toArray(new String[0]);
+		this.getters = List.copyOf(getters);
+		this.setters = setters.values().toArray(new Setter[0]);
+		this.capacity = (int)(this.names.length / 0.75f) + 1;
+	}
+	
+	public Class<T> getType(){
+		return this.clazz;
+	}
+	
+	/**
+	 * The property names dumped by the codec.
+	 */
+	public List<String> names(){
+		return List.of(names);
+	}
+	
+	/**
+	 * Map to Bean: call the setters of the non-null values.
+	 */
+	public void fill(T target, Map<String, Object> data) {
+		if(Hotpot.orNull(target, data)) return;
+		try {
+			for(var setter : setters) {
+				var param = data.get(setter.name);
+				if(param == null) continue;
+				setter.find(param).accessor.accept(target, param);
+			}
+		}catch(RuntimeException e) {
+			throw new RuntimeException("Failed to fill values to the bean", e);
+		}
+	}
+	
+	/**
+	 * Bean to Map: the result is the ONLY allocation.
+	 */
+	public Map<String, Object> dump(T target) {
+		if(Objects.isNull(target)) return Map.of();
+		if(names.length == 0) return Map.of();
+		var result = new HashMap<String, Object>(capacity);
+		dump(target, result);
+		return result;
+	}
+	
+	/**
+	 * Bean to Map: put the values into the given map.
+	 */
+	public void dump(T target, Map<String, Object> result) {
+		if(Hotpot.orNull(target, result)) return;
+		try {
+			for(int i = 0; i < names.length; i++) {
+				result.put(names[i], getters.get(i).apply(target));
+			}
+		}catch(RuntimeException e) {
+			throw new RuntimeException("Failed to dump the values to map", e);
+		}
+	}
+	
+	/**
+	 * Create a bean via the public default constructor and fill it.
+	 */
+	@SuppressWarnings("unchecked")
+	public T create(Map<String, Object> data) {
+		var result = (T)constructor().get();
+		this.fill(result, data);
+		return result;
+	}
+	
+	/**
+	 * Beans to Maps. A large batch is split across the common fork-join pool.
+	 */
+	public List<Map<String, Object>> dumpAll(List<? extends T> beans){
+		return dumpAll(beans, ForkJoinPool.commonPool());
+	}
+	
+	public List<Map<String, Object>> dumpAll(List<? extends T> beans, ForkJoinPool pool){
+		if(Objects.isNull(beans) || beans.isEmpty()) return List.of();
+		var result = new ArrayList<Map<String, Object>>(Collections.nCopies(beans.size(), null));
+		batch(beans.size(), pool, i -> result.set(i, dump(beans.get(i)))); //Disjoint slots
+		return result;
+	}
+	
+	/**
+	 * Maps to new beans. A large batch is split across the common fork-join pool.
+	 */
+	public List<T> fillAll(List<? extends Map<String, Object>> rows){
+		return fillAll(rows, ForkJoinPool.commonPool());
+	}
+	
+	public List<T> fillAll(List<? extends Map<String, Object>> rows, ForkJoinPool pool){
+		if(Objects.isNull(rows) || rows.isEmpty()) return List.of();
+		var result = new ArrayList<T>(Collections.nCopies(rows.size(), null));
+		batch(rows.size(), pool, i -> result.set(i, create(rows.get(i)))); //Disjoint slots
+		return result;
+	}
+	
+	/**
+	 * Beans to Maps lazily. It runs in parallel if the stream is parallel.
+	 */
+	public Stream<Map<String, Object>> dumpAll(Stream<? extends T> beans){
+		return beans.map(this::dump);
+	}
+	
+	/**
+	 * Maps to new beans lazily. It runs in parallel if the stream is parallel.
+	 */
+	public Stream<T> fillAll(Stream<? extends Map<String, Object>> rows){
+		return rows.map(this::create);
+	}
+	
+	/**
+	 * Stream the beans into the sink through ONE reused map, so neither the 
+	 * results nor a map per bean are held. The sink must copy the map to retain it.
+	 */
+	public void dumpEach(Iterable<? extends T> beans, Consumer<? super Map<String, Object>> sink) {
+		if(Hotpot.orNull(beans, sink)) return;
+		var row = new HashMap<String, Object>(capacity);
+		for(var bean : beans) {
+			if(bean == null) continue;
+			this.dump(bean, row);
+			sink.accept(row);
+			row.clear();
+		}
+	}
+	
+	private static void batch(int size, ForkJoinPool pool, IntConsumer action) {
+		if(size <= THRESHOLD) {
+			for(int i = 0; i < size; i++) action.accept(i);
+		}else {
+			pool.invoke(new Batch(0, size, action));
+		}
+	}
+	
+	private static class Batch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int from, to;
+		private transient IntConsumer action;
+		
+		Batch(int from, int to, IntConsumer action) {
+			this.to = to;
+			this.from = from;
+			this.action = action;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from <= THRESHOLD) {
+				for(int i = from; i < to; i++) action.accept(i);
+			}else {
+				var mid = (from + to) >>> 1;
+				invokeAll(new Batch(from, mid, action), new Batch(mid, to, action));
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Supplier<Object> constructor() {
+		var result = constructor;
+		if(result != null) return result;
+		try {
+			var c = clazz.getConstructor();
+			var lookup = lookupOf(clazz);
+			try {
+				var target = lookup.unreflectConstructor(c);
+				var site = LambdaMetafactory.metafactory(lookup, "get", 
+							MethodType.methodType(Supplier.class), 
+							MethodType.methodType(Object.class), target, target.type());
+				result = (Supplier<Object>)site.getTarget().invokeExact();
+			}catch(Throwable e) {
+				result = () -> {
+					try {
+						return c.newInstance();
+					}catch(ReflectiveOperationException x) {
+						throw Panic.cannotInstance(clazz.getName(), x);
+					}
+				};
+			}
+		}catch(NoSuchMethodException e) {
+			throw Panic.noDefaultConstructor(clazz, e);
+		}
+		this.constructor = result;
+		return result;
+	}
+	
+	private static MethodHandles.Lookup lookupOf(Class<?> clazz) {
+		try {
+			return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+		}catch(IllegalAccessException | RuntimeException e) {
+			return null; //Reflection
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> getterOf(MethodHandles.Lookup lookup, Method m) {
+		try {
+			var target = lookup.unreflect(m);
+			var type = target.type().wrap();
+			var site = LambdaMetafactory.metafactory(lookup, "apply", 
+						MethodType.methodType(Function.class), 
+						MethodType.methodType(Object.class, Object.class), target, type);
+			return (Function<Object, Object>)site.getTarget().invokeExact();
+		}catch(Throwable e) {
+			var handle = toHandle(m);
+			return bean -> {
+				try {
+					return handle.invoke(bean);
+				}catch(RuntimeException | Error x) {
+					throw x;
+				}catch(Throwable x) {
+					throw new IllegalStateException(x);
+				}
+			};
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> setterOf(MethodHandles.Lookup lookup, Method m) {
+		try {
+			var target = lookup.unreflect(m);
+			var type = target.type().wrap().changeReturnType(void.class);
+			var site = LambdaMetafactory.metafactory(lookup, "accept", 
+						MethodType.methodType(BiConsumer.class), 
+						MethodType.methodType(void.class, Object.class, Object.class), target, type);
+			return (BiConsumer<Object, Object>)site.getTarget().invokeExact();
+		}catch(Throwable e) {
+			var handle = toHandle(m);
+			return (bean, value) -> {
+				try {
+					handle.invoke(bean, value);
+				}catch(RuntimeException | Error x) {
+					throw x;
+				}catch(Throwable x) {
+					throw new IllegalStateException(x);
+				}
+			};
+		}
+	}
+	
+	private static MethodHandle toHandle(Method m) {
+		try {
+			m.setAccessible(true);
+			var result = MethodHandles.lookup().unreflect(m);
+			return result.asType(result.type().generic());
+		}catch(IllegalAccessException | RuntimeException e) {
+			throw new RuntimeException("Failed to access the method " + m.getName(), e);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * The registry of converters keyed by type.<p>
+ * Besides the registered(built-in or customized) classes, it derives converters for
+ * enums, arrays and List/Set of convertible types(comma separated). A converter is 
+ * resolved ONCE per type, and the immutable results are cached by the raw value, 
+ * so a configuration shared by many injections is parsed only once.<br>
+ * The global registry caches nothing derived(e.g. the enum of a plugin), the 
+ * registry of a container does and it's released with the container.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Converters {
+	private Converters parent;
+	private Map<Type, Converter<?>> converters;
+	private Map<Type, Map<String, Object>> values;
+	
+	private static final Converters GLOBAL = new Converters(null);
+	private static final Set<Class<?>> IMMUTABLES = Set.of(String.class, 
+		Integer.class, Long.class, Float.class, Double.class, Short.class, Byte.class,
+		Boolean.class, Character.class, int.class, long.class, float.class, double.class,
+		short.class, byte.class, boolean.class, char.class, BigDecimal.class, BigInteger.class, Duration.class);
+	
+	static {
+		GLOBAL.register(String.class, v->v);
+		GLOBAL.register(Integer.class, Integer::parseInt);
+		GLOBAL.register(Long.class, Long::parseLong);
+		GLOBAL.register(Float.class, Float::parseFloat);
+		GLOBAL.register(Double.class, Double::parseDouble);
+		GLOBAL.register(Short.class, Short::parseShort);
+		GLOBAL.register(Byte.class, Byte::parseByte);
+		GLOBAL.register(Boolean.class, Boolean::parseBoolean);
+		GLOBAL.register(Character.class, Converters::toChar);
+		GLOBAL.register(int.class, Integer::parseInt);
+		GLOBAL.register(long.class, Long::parseLong);
+		GLOBAL.register(float.class, Float::parseFloat);
+		GLOBAL.register(double.class, Double::parseDouble);
+		GLOBAL.register(short.class, Short::parseShort);
+		GLOBAL.register(byte.class, Byte::parseByte);
+		GLOBAL.register(boolean.class, Boolean::parseBoolean);
+		GLOBAL.register(char.class, Converters::toChar);
+		GLOBAL.register(BigDecimal.class, v->new BigDecimal(v.trim()));
+		GLOBAL.register(BigInteger.class, v->new BigInteger(v.trim()));
+		GLOBAL.register(Duration.class, Converters::toDuration);
+	}
+	
+	/**
+	 * A registry inherits the built-in converters.
+	 */
+	public Converters() {
+		this(GLOBAL);
+	}
+	
+	private Converters(Converters parent) {
+		this.parent = parent;
+		this.values = new ConcurrentHashMap<>(32);
+		this.converters = new ConcurrentHashMap<>(32);
+	}
+	
+	/**
+	 * The built-in converters shared by all containers.
+	 */
+	public static Converters global() {
+		return GLOBAL;
+	}
+	
+	public <T> Converters register(Class<T> type, Converter<? extends T> converter) {
+		if(Hotpot.orNull(type, converter)) return this;
+		this.converters.put(type, converter);
+		return this;
+	}
+	
+	public boolean supports(Type type) {
+		return type != null && resolve(type) != null;
+	}
+	
+	/**
+	 * @return Returns null if the type is not convertible.
+	 */
+	public Converter<?> resolve(Type type) {
+		if(Objects.isNull(type)) return null;
+		var result = lookup(type);
+		if(result != null) return result;
+		result = derive(type);
+		if(result == null || parent == null) return result;
+		converters.put(type, result); //NOT in the global one, it would pin the class loader
+		return result;
+	}
+	
+	private Converter<?> lookup(Type type) {
+		var result = converters.get(type);
+		if(result != null) return result;
+		return parent != null ? parent.lookup(type) : null;
+	}
+	
+	private Converter<?> derive(Type type) {
+		if(type instanceof Class) {
+			var clazz = (Class<?>)type;
+			if(clazz.isEnum()) return toEnum(clazz);
+			if(!clazz.isArray()) return null;
+			var element = clazz.getComponentType();
+			var c = resolve(element);
+			if(c == null) return null;
+			return v->{
+				var items = split(v);
+				var result = Array.newInstance(element, items.length);
+				for(int i = 0; i < items.length; i++) {
+					Array.set(result, i, c.convert(items[i]));
+				}
+				return result;
+			};
+		}
+		if(!(type instanceof ParameterizedType)) return null;
+		var pt = (ParameterizedType)type;
+		if(!(pt.getRawType() instanceof Class)) return null;
+		var raw = (Class<?>)pt.getRawType();
+		var c = resolve(pt.getActualTypeArguments()[0]);
+		if(c == null) return null;
+		if(raw == List.class || raw == Collection.class) {
+			return v->{
+				var result = new ArrayList<Object>();
+				for(var item : split(v)) result.add(c.convert(item));
+				return List.copyOf(result);
+			};
+		}
+		if(raw == Set.class) {
+			return v->{
+				var result = new LinkedHashSet<Object>();
+				for(var item : split(v)) result.add(c.convert(item));
+				return Set.copyOf(result);
+			};
+		}
+		return null;
+	}
+	
+	/**
+	 * Convert the value without caching.
+	 */
+	public Object convert(Type type, String value) {
+		var converter = resolve(type);
+		if(Objects.isNull(converter)) {
+			throw Panic.unsupportedType(type.getTypeName());
+		}
+		return apply(type, value, converter);
+	}
+	
+	/**
+	 * Convert the value with the resolved converter. The result is cached 
+	 * if it's immutable(excludes arrays and customized types).
+	 */
+	public Object parse(Type type, String value, Converter<?> converter) {
+		if(Objects.isNull(value)) return null;
+		if(!cacheable(type)) return apply(type, value, converter);
+		var cache = values.computeIfAbsent(type, t->new ConcurrentHashMap<>());
+		var result = cache.get(value);
+		if(result != null) return result;
+		result = apply(type, value, converter);
+		if(result != null) cache.putIfAbsent(value, result);
+		return result;
+	}
+	
+	private boolean cacheable(Type type) {
+		if(parent == null) return IMMUTABLES.contains(type); //Global: built-in types ONLY
+		if(type instanceof ParameterizedType) return true; //Immutable List/Set
+		if(!(type instanceof Class)) return false;
+		var clazz = (Class<?>)type;
+		return clazz.isEnum() || IMMUTABLES.contains(clazz);
+	}
+	
+	private static Object apply(Type type, String value, Converter<?> converter) {
+		try {
+			return converter.convert(value);
+		}catch(RuntimeException e) {
+			if(e instanceof Panic) throw e;
+			throw Panic.typeConvertError(type.getTypeName(), value, e);
+		}
+	}
+	
+	private static String[] split(String value) {
+		if(value.isBlank()) return new String[0];
+		var result = value.split(",");
+		for(int i = 0; i < result.length; i++) {
+			result[i] = result[i].trim();
+		}
+		return result;
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Converter<?> toEnum(Class<?> clazz) {
+		return v->Enum.valueOf((Class<Enum>)clazz, v.trim());
+	}
+	
+	private static Character toChar(String v) {
+		if(v.length() != 1) {
+			throw new IllegalArgumentException("Not a single character.");
+		}
+		return v.charAt(0);
+	}
+	
+	/**
+	 * ISO-8601(PT5S) or a number with unit: ns, us, ms, s, m, h, d(e.g. 500ms, 30s).
+	 * A plain number means milliseconds.
+	 */
+	static Duration toDuration(String v) {
+		var val = v.trim().toLowerCase();
+		if(val.startsWith("p") || val.startsWith("-p")) {
+			return Duration.parse(v.trim());
+		}
+		var i = 0;
+		while(i < val.length() && (Character.isDigit(val.charAt(i)) || val.charAt(i) == '-')) i++;
+		var amount = Long.parseLong(val.substring(0, i));
+		switch(val.substring(i).trim()) {
+			case "ns": return Duration.ofNanos(amount);
+			case "us": return Duration.ofNanos(amount * 1000);
+			case "": 
+			case "ms": return Duration.ofMillis(amount);
+			case "s": return Duration.ofSeconds(amount);
+			case "m": return Duration.ofMinutes(amount);
+			case "h": return Duration.ofHours(amount);
+			case "d": return Duration.ofDays(amount);
+			default: throw new IllegalArgumentException("Unknown duration unit.");
+		}
+	}
+}
@@ -16,17 +16,16 @@
 
 package cn.techarts.whale.util;
 
-import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import cn.techarts.whale.Panic;
 
@@ -55,48 +54,11 @@ public final class Hotpot {
 		return !Modifier.isAbstract(clazz.getModifiers());
 	}
 	
+	/**
+	 * Convert the value via the built-in {@link Converters}.
+	 */
 	public static Object cast(Type t, String v) {
-		var name = t.getTypeName();
-		try {
-			switch(name) {
-				case "java.lang.String":
-					return v;
-				case "String":
-					return v;
-				case "java.lang.Integer":
-					return Integer.parseInt(v);
-				case "java.lang.Float":
-					return Float.parseFloat(v);
-				case "java.lang.Double":
-					return Double.parseDouble(v);
-				case "java.lang.Long":
-					return Long.parseLong(v);
-				case "java.lang.Boolean":
-					return Boolean.parseBoolean(v);
-				case "java.lang.Short":
-					return Short.parseShort(v);
-				case "java.lang.Byte":
-					return Byte.parseByte(v);
-				case "int":
-					return Integer.parseInt(v);
-				case "float":
-					return Float.parseFloat(v);
-				case "double":
-					return Double.parseDouble(v);
-				case "long":
-					return Long.parseLong(v);
-				case "boolean":
-					return Boolean.parseBoolean(v);
-				case "short":
-					return Short.parseShort(v);
-				case "byte":
-					return Byte.parseByte(v);
-				default:
-					throw Panic.unsupportedType(name);
-			}
-		}catch( NumberFormatException e) {
-			throw Panic.typeConvertError(name, v, e);
-		}
+		return Converters.global().convert(t, v);
 	}
 	
 	private static final Map<String, Integer> PRIMITIVES = new HashMap<>() {
@@ -149,7 +111,7 @@ public final class Hotpot {
 		return PRIMITIVES.get(actual) == PRIMITIVES.get(expect);
 	}
 	
-	private static String toFieldName(String method) {
+	static String toFieldName(String method) {
 		var chars = method.toCharArray();
 		var idx = method.startsWith("is") ? 2 : 3;
 		chars[idx] = (char)(chars[idx] + 32); //To lower-case
@@ -168,7 +130,7 @@ public final class Hotpot {
 		return end < length ? end : length - 1;
 	}
 	
-	private static boolean isGetter(String name) {
+	static boolean isGetter(String name) {
 		if(Objects.isNull(name)) return false;
 		if(name.startsWith("is")) return true;
 		return name.startsWith("get");
@@ -183,54 +145,51 @@ public final class Hotpot {
 	}
 	
 	/**
-	 * Map to Bean
+	 * Map to Bean. See {@link BeanCodec}
 	 */
+	@SuppressWarnings("unchecked")
 	public static void fill(Object target, Map<String, Object> data) {
 		if(orNull(target, data)) return;
-		try {
-			var clazz = target.getClass();
-			var methods = clazz.getMethods();
-			if(Objects.isNull(methods)) return;
-			for(var m : methods) {
-				var name = m.getName();
-				if(!name.startsWith("set")) continue;
-				if(m.getParameterCount() != 1) continue;
-				var param = data.get(toFieldName(name));
-				if(param != null) m.invoke(target, param);
-			}
-		}catch(Exception e) {
-			throw new RuntimeException("Failed to fill values to the bean", e);
-		}	
+		var codec = (BeanCodec<Object>)BeanCodec.of(target.getClass());
+		codec.fill(target, data);
 	}
 	
 	/**
-	 * Bean to Map
+	 * Bean to Map. See {@link BeanCodec}
 	 */
+	@SuppressWarnings("unchecked")
 	public static Map<String, Object> dump(Object target) {
 		if(Objects.isNull(target)) return Map.of();
+		var codec = (BeanCodec<Object>)BeanCodec.of(target.getClass());
+		return codec.dump(target);
+	}
+	
+	/**
+	 * Create a thread factory. Virtual threads are preferred if the JVM supports(Java 21+),
+	 * otherwise it creates daemon platform threads.
+	 */
+	public static ThreadFactory threadFactory(String name) {
 		try {
-			var clazz = target.getClass();
-			var methods = clazz.getMethods();
-			if(isNull(methods)) return Map.of();
-			var getters = new ArrayList<String>();
-			for(var method : methods) {
-				var name = method.getName();
-				if(!isGetter(name)) continue;
-				if(method.getParameterCount() > 0) continue;
-				getters.add(name); //A legal getter method
-			}
-			if(getters.isEmpty()) return Map.of();
-			var result = new HashMap<String, Object>(32);
-			for(var getter : getters) {
-				var m = clazz.getMethod(getter);
-				if(m != null) {
-					var f = toFieldName(getter);
-					result.put(f, m.invoke(target));
-				}
-			}
-			return result;
-		}catch(Exception e) {
-			throw new RuntimeException("Failed to dump the values to map", e);
+			var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			var clazz = Class.forName("java.lang.Thread$Builder");
+			builder = clazz.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+			return (ThreadFactory)clazz.getMethod("factory").invoke(builder);
+		}catch(ReflectiveOperationException e) {
+			var counter = new AtomicInteger();
+			return runnable->{
+				var result = new Thread(runnable, name + "-" + counter.getAndIncrement());
+				result.setDaemon(true);
+				return result;
+			};
+		}
+	}
+	
+	public static boolean supportsVirtualThreads() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		}catch(NoSuchMethodException e) {
+			return false;
 		}
 	}
 	
@@ -264,38 +223,11 @@ public final class Hotpot {
 		return statements[0]; //Note: maybe null here
 	}
 	
-	private static final String P = "^\\s*[a-zA-Z\\s][a-zA-Z0-9_.-]*\\s*=\\s*.*$";
-	
 	/**
-	 * INI-Liked configuration
+	 * INI-Liked configuration(flat keys). See {@link Ini}
 	 */
 	public static Map<String, String> resolveConfiguration(String path){
-		boolean multiLines = false;
-		String line = null, sentence = null;
-		var result = new HashMap<String, String>(512);
-		try(var reader = new BufferedReader(new FileReader(path))){
-			while((line = reader.readLine()) != null) {
-				line = line.stripTrailing();
-				if(line.isBlank()) continue;
-				if(line.startsWith("#")) continue;
-				if(multiLines && sentence != null) {
-					var end = sentence.length() - 2;
-					sentence = sentence.substring(0, end).concat(line);
-				}
-				if(!multiLines && line.matches(P)) sentence = line;
-				multiLines = line.endsWith("\\\\"); //Current Line
-				if(Objects.isNull(sentence) || multiLines) continue;
-				int i = sentence.indexOf('=');
-				var k = sentence.substring(0, i);
-				var v = sentence.substring(i + 1);
-				if(isNull(v)) continue;
-				result.put(k.trim(), v.trim());
-				sentence = null; //Reset the variable 
-			}
-			return result;
-		}catch(IOException e){
-			throw new RuntimeException("Fail to load the ini file", e);
-		}
+		return Ini.parse(path);
 	}
 	
 	public static boolean orNull(Object arg0, Object arg1) {
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * A hand-written streaming parser for INI-liked(UTF-8) configuration files.<p>
+ * The file is read ONCE into a heap buffer(never mapped, a mapping keeps the file locked on Windows 
+ * until GC, so it can't be saved by editors) and scanned byte by byte: a line is "key = value", 
+ * the key starts with a letter and contains [a-zA-Z0-9_.-]. A line starts with '#' 
+ * is a comment. A line ends with "\\" continues on the next line. "[name]" starts a 
+ * section, the keys in it are "name.key" if sections are enabled, otherwise ignored.
+ * 
+ * @author rocwon@gmail.com
+ */
+public final class Ini {
+	private byte[] sentence = new byte[256];
+	private int length = 0;
+	private String section = null;
+	private boolean sections;
+	private Map<String, String> result;
+	
+	private Ini(boolean sections, Map<String, String> result) {
+		this.result = result;
+		this.sections = sections;
+	}
+	
+	/**
+	 * Parse the file into flat keys(the sections are ignored).
+	 */
+	public static Map<String, String> parse(String path){
+		return parse(path, false);
+	}
+	
+	public static Map<String, String> parse(String path, boolean sections){
+		var result = new HashMap<String, String>(512);
+		try {
+			var file = Paths.get(path);
+			if(Files.size(file) > Integer.MAX_VALUE) {
+				throw new Panic("The ini file [" + path + "] is too large.");
+			}
+			var buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			new Ini(sections, result).parse(buffer);
+			return result;
+		}catch(IOException e){
+			throw new Panic("Fail to load the ini file [" + path + "]", e);
+		}
+	}
+	
+	/**
+	 * Parse the files in parallel and merge them in order: a later file overrides the former ones.
+	 */
+	public static Map<String, String> parse(List<String> paths, boolean sections){
+		var parsed = paths.parallelStream()
+						  .map(path -> parse(path, sections))
+						  .collect(Collectors.toCollection(ArrayList::new));
+		var result = new HashMap<String, String>(512);
+		parsed.forEach(result::putAll);
+		return result;
+	}
+	
+	private void parse(ByteBuffer buffer) {
+		boolean multiLines = false, active = false;
+		int limit = buffer.limit(), start = 0;
+		while(start < limit) {
+			int end = start;
+			while(end < limit && buffer.get(end) != '\n') end++;
+			var next = end + 1;
+			while(end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--; //Strip trailing and '\r'
+			if(end == start || buffer.get(start) == '#') {
+				start = next; continue; //Blank or comment
+			}
+			if(multiLines && active) {
+				length -= 2; //Remove the continuation marker
+				append(buffer, start, end);
+			}
+			if(!multiLines) {
+				active = isSentence(buffer, start, end);
+				if(active) {
+					length = 0;
+					append(buffer, start, end);
+				}else if(sections) {
+					resolveSection(buffer, start, end);
+				}
+			}
+			multiLines = end - start >= 2 && buffer.get(end - 1) == '\\' && buffer.get(end - 2) == '\\';
+			if(active && !multiLines) {
+				this.emit();
+				active = false;
+			}
+			start = next;
+		}
+	}
+	
+	private void append(ByteBuffer buffer, int start, int end) {
+		var n = end - start;
+		if(length + n > sentence.length) {
+			var copy = new byte[Math.max(sentence.length * 2, length + n)];
+			System.arraycopy(sentence, 0, copy, 0, length);
+			this.sentence = copy;
+		}
+		for(int i = start; i < end; i++) {
+			sentence[length++] = buffer.get(i);
+		}
+	}
+	
+	private void emit() {
+		int i = 0;
+		while(sentence[i] != '=') i++; //Checked already
+		var k = trim(0, i);
+		var v = trim(i + 1, length);
+		if(v.isEmpty()) return;
+		result.put(section != null ? section + "." + k : k, v);
+	}
+	
+	private String trim(int from, int to) {
+		while(from < to && (sentence[from] & 0xFF) <= ' ') from++;
+		while(to > from && (sentence[to - 1] & 0xFF) <= ' ') to--;
+		return new String(sentence, from, to - from, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * key = value: the key starts with a letter(or follows a leading space) and contains [a-zA-Z0-9_.-]
+	 */
+	private static boolean isSentence(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		while(i < end && isSpace(buffer.get(i))) i++;
+		if(i == start) {
+			if(!isLetter(buffer.get(i))) return false;
+			i++;
+		}
+		for(; i < end; i++) {
+			var b = buffer.get(i);
+			if(isLetter(b) || isDigit(b)) continue;
+			if(b == '_' || b == '.' || b == '-') continue;
+			break;
+		}
+		while(i < end && isSpace(buffer.get(i))) i++;
+		return i < end && buffer.get(i) == '=';
+	}
+	
+	private void resolveSection(ByteBuffer buffer, int start, int end) {
+		while(start < end && isSpace(buffer.get(start))) start++;
+		if(buffer.get(start) != '[' || buffer.get(end - 1) != ']') return;
+		length = 0;
+		append(buffer, start + 1, end - 1);
+		var name = trim(0, length);
+		this.section = name.isEmpty() ? null : name;
+		length = 0;
+	}
+	
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\f' || b == 0x0B;
+	}
+	
+	private static boolean isLetter(byte b) {
+		return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+	}
+	
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+}
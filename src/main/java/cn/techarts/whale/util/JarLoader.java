@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.stream.Collectors;
+import cn.techarts.whale.Panic;
+
+/**
+ * An isolated class loader of a JAR file(plugin). The classes are defined in parallel 
+ * and they can be unloaded once the loader is closed and the objects are released.<br>
+ * It delegates to the parent first, so the classes of whale and the API are shared.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class JarLoader extends URLClassLoader {
+	private String jar;
+	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+	
+	public JarLoader(String jar, ClassLoader parent) {
+		super(new URL[] {toURL(jar)}, parent);
+		this.jar = jar;
+	}
+	
+	private static URL toURL(String jar) {
+		try {
+			return new File(jar).toURI().toURL();
+		}catch(MalformedURLException e) {
+			throw new Panic("Invalid jar file: " + jar, e);
+		}
+	}
+	
+	/**
+	 * Load(not initialize) all classes in the JAR in parallel.
+	 * @return The classes in the order of the JAR entries.
+	 */
+	public List<Class<?>> loadAll(){
+		return Scanner.scanJar(jar)
+					  .parallelStream()
+					  .filter(name -> !name.endsWith("module-info"))
+					  .filter(name -> !name.endsWith("package-info"))
+					  .map(this::define)
+					  .collect(Collectors.toList());
+	}
+	
+	private Class<?> define(String name){
+		try {
+			return Class.forName(name, false, this);
+		}catch(ClassNotFoundException | LinkageError e) {
+			throw Panic.classNotFound(name, e);
+		}
+	}
+	
+	public String getJar() {
+		return this.jar;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A sorted index of the configuration keys to find the keys under a prefix 
+ * in O(log n + k) instead of scanning the whole configuration.<p>
+ * The factory owns the index of its configurations and replaces it on reload. 
+ * The keys are sorted on the first lookup under a prefix.
+ * 
+ * @author rocwon@gmail.com
+ */
+public final class KeyIndex {
+	private volatile String[] keys;
+	private final Map<String, String> configs;
+	
+	public KeyIndex(Map<String, String> configs) {
+		this.configs = Objects.requireNonNull(configs);
+	}
+	
+	private String[] keys() {
+		var result = this.keys;
+		if(result != null) return result;
+		result = configs.keySet().toArray(new String[0]);
+		Arrays.sort(result);
+		this.keys = result; //Racy but idempotent
+		return result;
+	}
+	
+	/**
+	 * @return The keys start with "prefix." in order.
+	 */
+	public List<String> under(String prefix) {
+		var head = prefix + ".";
+		var keys = keys();
+		var i = Arrays.binarySearch(keys, head);
+		if(i < 0) i = -i - 1;
+		var result = new ArrayList<String>();
+		for(; i < keys.length && keys[i].startsWith(head); i++) {
+			result.add(keys[i]);
+		}
+		return result;
+	}
+	
+	public String get(String key) {
+		return configs.get(key);
+	}
+	
+	public Map<String, String> getConfigs(){
+		return configs;
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * A chain of configuration sources. A later source overrides the former ones, e.g.<p>
+ * Sources.of(defaults).file("app.properties").env("APP_").system("app.")<p>
+ * The sources are merged and the ${key} or ${key:default} references are interpolated 
+ * ONCE by {@link #resolve()}, the result is a compact and immutable map with interned strings.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Sources {
+	private List<String> files;
+	private List<Supplier<Map<String, String>>> layers;
+	private boolean verbatim;
+	
+	private static final String BEGIN = "${", END = "}";
+	
+	public Sources() {
+		this.files = new ArrayList<>();
+		this.layers = new ArrayList<>();
+	}
+	
+	/**
+	 * Start the chain with the default values.
+	 */
+	public static Sources of(Map<String, String> defaults) {
+		return new Sources().map(defaults);
+	}
+	
+	public Sources map(Map<String, String> configs) {
+		if(Objects.isNull(configs)) return this;
+		var copy = Map.copyOf(configs);
+		this.layers.add(() -> copy);
+		return this;
+	}
+	
+	/**
+	 * A properties file(*.properties) or an INI-liked file(others).
+	 * The file is read again when the sources are resolved again(e.g. reload).
+	 */
+	public Sources file(String path) {
+		if(Hotpot.isNull(path)) return this;
+		return path.endsWith(".properties") ? properties(path) : ini(path);
+	}
+	
+	public Sources properties(String path) {
+		if(Hotpot.isNull(path)) return this;
+		this.files.add(path);
+		this.layers.add(() -> Hotpot.resolveProperties(path));
+		return this;
+	}
+	
+	public Sources ini(String path) {
+		if(Hotpot.isNull(path)) return this;
+		this.files.add(path);
+		this.layers.add(() -> Hotpot.resolveConfiguration(path));
+		return this;
+	}
+	
+	/**
+	 * The environment variables start with the prefix. The key is converted 
+	 * to lower case and '_' is replaced by '.', e.g. APP_DB_URL -> db.url
+	 */
+	public Sources env(String prefix) {
+		var p = prefix != null ? prefix : "";
+		this.layers.add(() -> {
+			var result = new HashMap<String, String>();
+			for(var entry : System.getenv().entrySet()) {
+				var name = entry.getKey();
+				if(!name.startsWith(p)) continue;
+				var key = name.substring(p.length()).toLowerCase().replace('_', '.');
+				if(!key.isEmpty()) result.put(key, entry.getValue());
+			}
+			return result;
+		});
+		return this;
+	}
+	
+	/**
+	 * The system properties start with the prefix. The prefix is kept.
+	 */
+	public Sources system(String prefix) {
+		var p = prefix != null ? prefix : "";
+		this.layers.add(() -> {
+			var result = new HashMap<String, String>();
+			var props = System.getProperties();
+			for(var key : props.stringPropertyNames()) {
+				if(key.startsWith(p)) result.put(key, props.getProperty(key));
+			}
+			return result;
+		});
+		return this;
+	}
+	
+	public Sources system() {
+		return system(null);
+	}
+	
+	/**
+	 * Keep the ${...} references as they are, the sources are merged ONLY.
+	 */
+	public Sources verbatim() {
+		this.verbatim = true;
+		return this;
+	}
+	
+	/**
+	 * The files in the chain, e.g. to watch them.
+	 */
+	public List<String> getFiles(){
+		return List.copyOf(files);
+	}
+	
+	/**
+	 * Merge and interpolate(unless {@link #verbatim()}) all sources.
+	 */
+	public Map<String, String> resolve(){
+		var merged = new HashMap<String, String>(256);
+		for(var layer : layers) {
+			var configs = layer.get();
+			if(configs != null) merged.putAll(configs);
+		}
+		var pool = new HashMap<String, String>(256);
+		var resolved = new HashMap<String, String>(merged.size() * 2);
+		for(var key : merged.keySet()) {
+			var val = verbatim ? merged.get(key) : interpolate(key, merged, resolved, new HashSet<>());
+			var v = pool.putIfAbsent(val, val); //Share the same values
+			resolved.put(key, v != null ? v : val);
+		}
+		var result = new HashMap<String, String>(resolved.size() * 2);
+		resolved.forEach((k, v) -> result.put(k.intern(), v));
+		return Map.copyOf(result);
+	}
+	
+	private static String interpolate(String key, Map<String, String> merged, Map<String, String> resolved, Set<String> visiting) {
+		var done = resolved.get(key);
+		if(done != null) return done;
+		var raw = merged.get(key);
+		if(raw == null) return null;
+		if(!raw.contains(BEGIN)) return raw;
+		if(!visiting.add(key)) {
+			throw Panic.circularReference(key);
+		}
+		var result = new StringBuilder(raw.length() + 16);
+		int from = 0;
+		while(true) {
+			var begin = raw.indexOf(BEGIN, from);
+			var end = begin < 0 ? -1 : raw.indexOf(END, begin + 2);
+			if(end < 0) {
+				result.append(raw, from, raw.length()); break;
+			}
+			result.append(raw, from, begin);
+			var ref = raw.substring(begin + 2, end);
+			var colon = ref.indexOf(':');
+			var name = colon < 0 ? ref : ref.substring(0, colon);
+			var val = interpolate(name, merged, resolved, visiting);
+			if(val == null && colon >= 0) val = ref.substring(colon + 1);
+			if(val == null) throw Panic.configKeyMissing(name);
+			result.append(val);
+			from = end + 1;
+		}
+		visiting.remove(key);
+		var val = result.toString();
+		resolved.put(key, val);
+		return val;
+	}
+}
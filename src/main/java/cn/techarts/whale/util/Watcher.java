@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024 techarts.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.techarts.whale.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cn.techarts.whale.Panic;
+
+/**
+ * Watch files via the WatchService and notify the listener once per burst of changes.<br>
+ * Editors often write a file several times(or replace it), so the events are debounced.
+ * 
+ * @author rocwon@gmail.com
+ */
+public class Watcher implements Runnable, AutoCloseable {
+	private String name;
+	private long debounce;
+	private Thread thread;
+	private WatchService service;
+	private volatile boolean closed;
+	private Map<Path, Consumer<Path>> listeners;
+	private static final Logger LOGGER = Hotpot.getLogger();
+	
+	/**
+	 * @param debounce Milliseconds to wait for more events after the first one.
+	 */
+	public Watcher(String name, long debounce) {
+		this.name = name;
+		this.debounce = Math.max(0, debounce);
+		this.listeners = new ConcurrentHashMap<>();
+		try {
+			this.service = FileSystems.getDefault().newWatchService();
+		}catch(IOException e) {
+			throw new Panic("Failed to create the file watcher.", e);
+		}
+	}
+	
+	/**
+	 * Watch the file. The listener is called on the watcher thread.
+	 */
+	public synchronized Watcher watch(String file, Consumer<Path> listener) {
+		if(Hotpot.orNull(file, listener)) return this;
+		var path = Paths.get(file).toAbsolutePath().normalize();
+		try {
+			path.getParent().register(service, 
+				StandardWatchEventKinds.ENTRY_CREATE, 
+				StandardWatchEventKinds.ENTRY_MODIFY);
+		}catch(IOException e) {
+			throw new Panic("Failed to watch the file [" + file + "]", e);
+		}
+		this.listeners.put(path, listener);
+		if(Objects.isNull(thread)) {
+			this.thread = Hotpot.threadFactory(name).newThread(this);
+			this.thread.start();
+		}
+		return this;
+	}
+	
+	@Override
+	public void run() {
+		while(!closed) {
+			try {
+				var changed = new LinkedHashSet<Path>();
+				collect(service.take(), changed);
+				if(debounce > 0) Thread.sleep(debounce);
+				for(var key = service.poll(); key != null; key = service.poll()) {
+					collect(key, changed);
+				}
+				for(var path : changed) notify(path);
+			}catch(ClosedWatchServiceException | InterruptedException e) {
+				return; //Closed
+			}
+		}
+	}
+	
+	private void collect(WatchKey key, LinkedHashSet<Path> changed) {
+		var dir = (Path)key.watchable();
+		for(var event : key.pollEvents()) {
+			if(!(event.context() instanceof Path)) continue;
+			var path = dir.resolve((Path)event.context()).normalize();
+			if(listeners.containsKey(path)) changed.add(path);
+		}
+		key.reset();
+	}
+	
+	private void notify(Path path) {
+		try {
+			listeners.get(path).accept(path);
+		}catch(RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Failed to handle the change of [" + path + "]", e);
+		}
+	}
+	
+	@Override
+	public void close() {
+		this.closed = true;
+		try {
+			service.close();
+		}catch(IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to close the file watcher.", e);
+		}
+	}
+}